@@ -0,0 +1,249 @@
+package com.bootcamp.ntt.api_gateway.admission;
+
+import com.bootcamp.ntt.api_gateway.config.AdmissionProperties;
+import com.bootcamp.ntt.api_gateway.filter.RequestIdentity;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextSigner;
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtro global de control de admisión. Se ejecuta antes que cualquier otro filtro de la
+ * ruta: clasifica la petición, aplica la cuota de su clase y, si el gateway está sobrecargado
+ * (retraso del event loop o peticiones en curso), rechaza con 503 las clases más bajas.
+ */
+@Slf4j
+public class AdmissionControlFilter implements GlobalFilter, Ordered {
+
+  public static final String PRIORITY_METADATA = "priority";
+  public static final String PRIORITY_ATTR = AdmissionControlFilter.class.getName() + ".priority";
+
+  private static final String REASON_QUOTA = "quota";
+  private static final String REASON_OVERLOAD = "overload";
+
+  private final AdmissionProperties properties;
+  private final JwtTokenUtil jwtTokenUtil;
+  private final IdentityContextSigner identityContextSigner;
+  private final EventLoopLagMonitor lagMonitor;
+  /** Clase más alta que puede otorgar un rol, o null si no hay role-priorities */
+  private final PriorityClass bestRolePriority;
+  private final AtomicInteger totalInFlight = new AtomicInteger();
+  private final Map<PriorityClass, ClassState> states = new EnumMap<>(PriorityClass.class);
+
+  public AdmissionControlFilter(AdmissionProperties properties, JwtTokenUtil jwtTokenUtil,
+                                IdentityContextSigner identityContextSigner,
+                                EventLoopLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.jwtTokenUtil = jwtTokenUtil;
+    this.identityContextSigner = identityContextSigner;
+    this.lagMonitor = lagMonitor;
+    this.bestRolePriority = properties.getRolePriorities().values().stream()
+      .min(Comparator.naturalOrder())
+      .orElse(null);
+
+    for (PriorityClass priority : PriorityClass.values()) {
+      int limit = properties.getMaxConcurrent().getOrDefault(priority, Integer.MAX_VALUE);
+      states.put(priority, new ClassState(priority, limit, meterRegistry));
+    }
+    Gauge.builder("gateway.admission.inflight.total", totalInFlight, AtomicInteger::get)
+      .description("Requests admitted and not yet completed")
+      .register(meterRegistry);
+    Gauge.builder("gateway.admission.overload.level", this, AdmissionControlFilter::overloadLevel)
+      .description("Number of lowest priority classes currently shed")
+      .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    int overloadLevel = overloadLevel();
+    PriorityClass priority = classify(exchange, overloadLevel);
+    ClassState state = states.get(priority);
+    exchange.getAttributes().put(PRIORITY_ATTR, priority);
+
+    if (priority.isShedAt(overloadLevel)) {
+      return shed(exchange, state, REASON_OVERLOAD);
+    }
+    if (!state.tryAcquire()) {
+      return shed(exchange, state, REASON_QUOTA);
+    }
+
+    totalInFlight.incrementAndGet();
+    long start = System.nanoTime();
+    return chain.filter(exchange)
+      .doFinally(signal -> {
+        totalInFlight.decrementAndGet();
+        state.release(System.nanoTime() - start);
+      });
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+
+  /**
+   * Clase de la ruta, elevada por el rol del token. El token sólo se parsea si algún rol puede
+   * elevar la clase y, bajo sobrecarga, sacarla de las clases descartadas: una petición que va
+   * a recibir 503 igualmente no paga la verificación del JWT.
+   */
+  private PriorityClass classify(ServerWebExchange exchange, int overloadLevel) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    PriorityClass priority = route != null
+      ? PriorityClass.from(route.getMetadata().get(PRIORITY_METADATA), properties.getDefaultPriority())
+      : properties.getDefaultPriority();
+
+    if (bestRolePriority == null || bestRolePriority.compareTo(priority) >= 0) {
+      return priority;
+    }
+    if (priority.isShedAt(overloadLevel) && bestRolePriority.isShedAt(overloadLevel)) {
+      return priority;
+    }
+
+    String role = extractRole(exchange);
+    PriorityClass rolePriority = role != null ? properties.getRolePriorities().get(role) : null;
+    return rolePriority != null && rolePriority.compareTo(priority) < 0 ? rolePriority : priority;
+  }
+
+  /**
+   * Rol de un token válido; los tokens inválidos se clasifican sin rol y los rechaza JwtAuthentication.
+   * La identidad validada queda en el exchange para que JwtAuthentication no vuelva a parsear el JWT.
+   */
+  private String extractRole(ServerWebExchange exchange) {
+    IdentityContext identity = RequestIdentity.identity(exchange);
+    if (identity != null) {
+      return identity.getRole();
+    }
+
+    String token = RequestIdentity.bearerToken(exchange);
+    if (token == null) {
+      return null;
+    }
+    try {
+      identity = identityContextSigner.isEnabled() ? identityContextSigner.cachedIdentity(token) : null;
+      if (identity == null) {
+        identity = jwtTokenUtil.extractIdentity(token);
+      }
+      exchange.getAttributes().put(RequestIdentity.IDENTITY_ATTR, identity);
+      return identity.getRole();
+    } catch (Exception e) {
+      log.debug("Could not read role for admission control: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private int overloadLevel() {
+    return Math.max(inFlightLevel(totalInFlight.get(), properties.getInFlightThreshold()), lagMonitor.getOverloadLevel());
+  }
+
+  /**
+   * 0 sin sobrecarga; 1, 2 o 3 al alcanzar el umbral de peticiones en curso, x1.5 o x2
+   */
+  static int inFlightLevel(int inFlight, int threshold) {
+    return inFlight >= threshold * 2 ? 3
+      : inFlight >= threshold * 3 / 2 ? 2
+      : inFlight >= threshold ? 1 : 0;
+  }
+
+  private Mono<Void> shed(ServerWebExchange exchange, ClassState state, String reason) {
+    state.shed(reason);
+    log.debug("Request shed ({}) for priority {}: {}", reason, state.priority, exchange.getRequest().getPath());
+
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+    response.getHeaders().add("Content-Type", "application/json");
+    response.getHeaders().add(HttpHeaders.RETRY_AFTER, "1");
+
+    String body = String.format(
+      "{\n" +
+        "  \"error\": \"Service Unavailable\",\n" +
+        "  \"message\": \"Gateway is overloaded, please retry\",\n" +
+        "  \"errorCode\": \"GATEWAY_OVERLOADED\",\n" +
+        "  \"timestamp\": \"%s\",\n" +
+        "  \"path\": \"%s\"\n" +
+        "}",
+      OffsetDateTime.now(),
+      exchange.getRequest().getPath().value()
+    );
+
+    DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+    return response.writeWith(Mono.just(buffer));
+  }
+
+  /**
+   * Cuota y métricas de una clase de prioridad
+   */
+  private static final class ClassState {
+
+    private final PriorityClass priority;
+    private final int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter shedByQuota;
+    private final Counter shedByOverload;
+    private final Timer admittedLatency;
+
+    private ClassState(PriorityClass priority, int limit, MeterRegistry meterRegistry) {
+      this.priority = priority;
+      this.limit = limit;
+      String tag = priority.name().toLowerCase();
+
+      Gauge.builder("gateway.admission.inflight", inFlight, AtomicInteger::get)
+        .description("Requests admitted and not yet completed, by priority class")
+        .tag("class", tag)
+        .register(meterRegistry);
+      this.shedByQuota = Counter.builder("gateway.admission.shed")
+        .tag("class", tag).tag("reason", REASON_QUOTA)
+        .register(meterRegistry);
+      this.shedByOverload = Counter.builder("gateway.admission.shed")
+        .tag("class", tag).tag("reason", REASON_OVERLOAD)
+        .register(meterRegistry);
+      this.admittedLatency = Timer.builder("gateway.admission.admitted.latency")
+        .description("Latency of admitted requests, by priority class")
+        .tag("class", tag)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    }
+
+    private boolean tryAcquire() {
+      int current;
+      do {
+        current = inFlight.get();
+        if (current >= limit) {
+          return false;
+        }
+      } while (!inFlight.compareAndSet(current, current + 1));
+      return true;
+    }
+
+    private void release(long latencyNanos) {
+      inFlight.decrementAndGet();
+      admittedLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void shed(String reason) {
+      (REASON_QUOTA.equals(reason) ? shedByQuota : shedByOverload).increment();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.bootcamp.ntt.api_gateway.admission;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el retraso de los event loops del servidor programando en cada uno una tarea
+ * periódica y comparando la hora prevista con la real.
+ */
+@Slf4j
+public class EventLoopLagMonitor implements DisposableBean {
+
+  private final EventLoopGroup eventLoops;
+  private final long intervalNanos;
+  private final long thresholdNanos;
+  private final Map<EventExecutor, Long> lagByLoop = new ConcurrentHashMap<>();
+
+  private volatile long lagNanos;
+  private volatile boolean stopped;
+
+  public EventLoopLagMonitor(EventLoopGroup eventLoops, Duration interval, Duration threshold) {
+    this.eventLoops = eventLoops;
+    this.intervalNanos = interval.toNanos();
+    this.thresholdNanos = threshold.toNanos();
+  }
+
+  public void start() {
+    int loops = 0;
+    for (EventExecutor loop : eventLoops) {
+      probe(loop);
+      loops++;
+    }
+    log.info("Event loop lag monitor started on {} event loops", loops);
+  }
+
+  @Override
+  public void destroy() {
+    stopped = true;
+  }
+
+  public double getLagMillis() {
+    return lagNanos / 1e6;
+  }
+
+  /**
+   * 0 sin sobrecarga; 1, 2 o 3 al superar el umbral, su doble o su cuádruple
+   */
+  public int getOverloadLevel() {
+    return overloadLevel(lagNanos, thresholdNanos);
+  }
+
+  static int overloadLevel(long lagNanos, long thresholdNanos) {
+    if (lagNanos >= thresholdNanos * 4) {
+      return 3;
+    }
+    if (lagNanos >= thresholdNanos * 2) {
+      return 2;
+    }
+    return lagNanos >= thresholdNanos ? 1 : 0;
+  }
+
+  private void probe(EventExecutor loop) {
+    if (stopped || loop.isShuttingDown()) {
+      return;
+    }
+    long expected = System.nanoTime() + intervalNanos;
+    loop.schedule(() -> {
+      lagByLoop.put(loop, Math.max(0L, System.nanoTime() - expected));
+      lagNanos = lagByLoop.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+      probe(loop);
+    }, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+}
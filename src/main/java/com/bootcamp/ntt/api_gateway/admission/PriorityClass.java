@@ -0,0 +1,32 @@
+package com.bootcamp.ntt.api_gateway.admission;
+
+/**
+ * Clases de prioridad, de mayor a menor. Bajo sobrecarga se descartan primero las últimas.
+ */
+public enum PriorityClass {
+  CRITICAL,
+  HIGH,
+  NORMAL,
+  LOW;
+
+  /**
+   * Interpreta el valor del metadata de la ruta (sin distinguir mayúsculas)
+   */
+  public static PriorityClass from(Object value, PriorityClass defaultClass) {
+    if (value == null) {
+      return defaultClass;
+    }
+    try {
+      return valueOf(value.toString().trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return defaultClass;
+    }
+  }
+
+  /**
+   * Con nivel de sobrecarga n se descartan las n clases más bajas; CRITICAL nunca
+   */
+  public boolean isShedAt(int overloadLevel) {
+    return this != CRITICAL && ordinal() >= values().length - overloadLevel;
+  }
+}
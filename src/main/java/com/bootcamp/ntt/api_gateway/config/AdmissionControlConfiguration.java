@@ -0,0 +1,48 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import com.bootcamp.ntt.api_gateway.admission.AdmissionControlFilter;
+import com.bootcamp.ntt.api_gateway.admission.EventLoopLagMonitor;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextSigner;
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Control de admisión por prioridad y descarte bajo sobrecarga
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(name = "gateway.admission.enabled", havingValue = "true")
+public class AdmissionControlConfiguration {
+
+  /**
+   * Sondea los mismos event loops que usa el servidor Reactor Netty
+   */
+  @Bean(initMethod = "start")
+  public EventLoopLagMonitor eventLoopLagMonitor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+    EventLoopLagMonitor monitor = new EventLoopLagMonitor(
+      HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE),
+      properties.getLagProbeInterval(),
+      properties.getLagThreshold());
+
+    Gauge.builder("gateway.admission.event.loop.lag", monitor, EventLoopLagMonitor::getLagMillis)
+      .description("Maximum scheduling lag across server event loops")
+      .baseUnit("milliseconds")
+      .register(meterRegistry);
+    return monitor;
+  }
+
+  @Bean
+  public AdmissionControlFilter admissionControlFilter(AdmissionProperties properties, JwtTokenUtil jwtTokenUtil,
+                                                       IdentityContextSigner identityContextSigner,
+                                                       EventLoopLagMonitor eventLoopLagMonitor,
+                                                       MeterRegistry meterRegistry) {
+    return new AdmissionControlFilter(properties, jwtTokenUtil, identityContextSigner, eventLoopLagMonitor, meterRegistry);
+  }
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import com.bootcamp.ntt.api_gateway.admission.PriorityClass;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Control de admisión (gateway.admission.enabled=true). La clase de cada petición sale
+ * del metadata "priority" de la ruta y puede subir según el rol del token:
+ * <pre>
+ * gateway:
+ *   admission:
+ *     enabled: true
+ *     max-concurrent: {critical: 2000, high: 800, normal: 400, low: 100}
+ *     role-priorities: {ROLE_ADMIN: high}
+ * spring.cloud.gateway.routes[n].metadata.priority: low
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.admission")
+public class AdmissionProperties {
+
+  private boolean enabled;
+
+  /** Clase de las rutas sin metadata "priority" */
+  private PriorityClass defaultPriority = PriorityClass.NORMAL;
+
+  /** Peticiones concurrentes máximas por clase; sin valor no hay cuota */
+  private Map<PriorityClass, Integer> maxConcurrent = new EnumMap<>(PriorityClass.class);
+
+  /** Clase mínima por rol; vacío evita leer el token en este filtro */
+  private Map<String, PriorityClass> rolePriorities = new HashMap<>();
+
+  /** Peticiones en curso a partir de las que se descarta LOW (x1.5 NORMAL, x2 HIGH) */
+  private int inFlightThreshold = 1000;
+
+  /** Retraso del event loop a partir del que se descarta LOW (x2 NORMAL, x4 HIGH) */
+  private Duration lagThreshold = Duration.ofMillis(50);
+
+  private Duration lagProbeInterval = Duration.ofMillis(100);
+}
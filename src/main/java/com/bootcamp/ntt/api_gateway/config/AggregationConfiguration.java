@@ -0,0 +1,72 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import com.bootcamp.ntt.api_gateway.controller.AggregationHandler;
+import com.bootcamp.ntt.api_gateway.controller.FallbackController;
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.function.Supplier;
+
+/**
+ * Registra los endpoints de agregación definidos en gateway.aggregation.endpoints
+ */
+@Configuration
+@Slf4j
+@EnableConfigurationProperties(AggregationProperties.class)
+@ConditionalOnProperty(prefix = "gateway.aggregation", name = "endpoints[0].path")
+public class AggregationConfiguration {
+
+  /**
+   * Las ramas se envían al propio gateway, así que pasan por las mismas rutas y filtros que una petición externa.
+   * Se usa un WebClient propio sin timeout de lectura: el límite lo pone el timeout de cada rama,
+   * y el del WebClient compartido (5s) recortaría en silencio los timeouts mayores.
+   */
+  @Bean
+  public AggregationHandler aggregationHandler(JwtTokenUtil jwtTokenUtil,
+                                               FallbackController fallbackController,
+                                               ObjectMapper objectMapper,
+                                               Environment environment) {
+    HttpClient httpClient = HttpClient.create()
+      .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000);
+    WebClient webClient = WebClient.builder()
+      .clientConnector(new ReactorClientHttpConnector(httpClient))
+      .build();
+
+    Supplier<String> gatewayBaseUrl = () -> {
+      String scheme = environment.getProperty("server.ssl.enabled", Boolean.class, false) ? "https" : "http";
+      String host = environment.getProperty("server.address", "localhost");
+      String port = environment.getProperty("local.server.port", environment.getProperty("server.port", "8080"));
+      return scheme + "://" + host + ":" + port;
+    };
+
+    return new AggregationHandler(jwtTokenUtil, fallbackController, objectMapper, webClient, gatewayBaseUrl);
+  }
+
+  /**
+   * Las RouterFunctions se evalúan antes que las rutas del gateway
+   */
+  @Bean
+  public RouterFunction<ServerResponse> aggregationRoutes(AggregationProperties properties, AggregationHandler handler) {
+    properties.validate();
+
+    RouterFunctions.Builder builder = RouterFunctions.route();
+    properties.getEndpoints().forEach(endpoint -> {
+      log.info("Registering aggregation endpoint {} with {} branches", endpoint.getPath(), endpoint.getBranches().size());
+      builder.GET(endpoint.getPath(), request -> handler.handle(endpoint, request));
+    });
+    return builder.build();
+  }
+}
@@ -0,0 +1,85 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Endpoints de agregación declarados en configuración, por ejemplo:
+ * <pre>
+ * gateway:
+ *   aggregation:
+ *     endpoints:
+ *       - path: /api/v1/aggregate/home
+ *         branches:
+ *           - key: customer
+ *             path: /api/v1/customers/{customerId}
+ *             timeout: 2s
+ *           - key: accounts
+ *             path: /api/v1/accounts/customer/{customerId}
+ *             fallback: account
+ * </pre>
+ * Cada rama es un path de las rutas del gateway, que se invoca a través del propio gateway
+ * para que apliquen los filtros de la ruta. Las variables del path salen del path del endpoint y del token (userId, customerId, username);
+ * las del token prevalecen, así que un path no puede suplantar la identidad del usuario.
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.aggregation")
+public class AggregationProperties {
+
+  /** Clave reservada para la lista de ramas degradadas del documento combinado */
+  public static final String DEGRADED_KEY = "degraded";
+
+  private List<Endpoint> endpoints = new ArrayList<>();
+
+  /**
+   * Rechaza al arrancar las definiciones que no se pueden servir de forma segura
+   */
+  public void validate() {
+    for (Endpoint endpoint : endpoints) {
+      Set<String> keys = new HashSet<>();
+      for (Branch branch : endpoint.getBranches()) {
+        if (branch.getKey() == null || branch.getKey().isBlank()) {
+          throw new IllegalStateException("Aggregation branch of " + endpoint.getPath() + " must declare a key");
+        }
+        if (DEGRADED_KEY.equals(branch.getKey())) {
+          throw new IllegalStateException("Aggregation branch key '" + DEGRADED_KEY + "' of " + endpoint.getPath()
+            + " is reserved for the list of degraded branches");
+        }
+        if (!keys.add(branch.getKey())) {
+          throw new IllegalStateException("Duplicate aggregation branch key '" + branch.getKey() + "' in " + endpoint.getPath());
+        }
+        if (branch.getPath() == null || !branch.getPath().startsWith("/")) {
+          throw new IllegalStateException("Aggregation branch '" + branch.getKey() + "' of " + endpoint.getPath()
+            + " must declare a gateway path starting with '/', got: " + branch.getPath());
+        }
+        if (branch.getTimeout() == null || branch.getTimeout().isNegative() || branch.getTimeout().isZero()) {
+          throw new IllegalStateException("Aggregation branch '" + branch.getKey() + "' of " + endpoint.getPath()
+            + " must declare a positive timeout, got: " + branch.getTimeout());
+        }
+      }
+    }
+  }
+
+  @Data
+  public static class Endpoint {
+    private String path;
+    private List<Branch> branches = new ArrayList<>();
+  }
+
+  @Data
+  public static class Branch {
+    /** Clave de la rama en el documento combinado */
+    private String key;
+    /** Path de una ruta del gateway, no una URI de servicio */
+    private String path;
+    private Duration timeout = Duration.ofSeconds(3);
+    /** Servicio de FallbackController usado si la rama falla; por defecto la clave */
+    private String fallback;
+  }
+}
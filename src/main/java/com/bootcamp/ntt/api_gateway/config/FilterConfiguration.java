@@ -2,6 +2,7 @@ package com.bootcamp.ntt.api_gateway.config;
 
 import com.bootcamp.ntt.api_gateway.filter.JwtAuthenticationGatewayFilterFactory;
 import com.bootcamp.ntt.api_gateway.filter.RoleBasedAuthGatewayFilterFactory;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextSigner;
 import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -23,8 +24,9 @@ public class FilterConfiguration {
    * Bean para hacer disponible el filtro JWT en el YAML
    */
   @Bean
-  public JwtAuthenticationGatewayFilterFactory jwtAuthenticationGatewayFilter(JwtTokenUtil jwtTokenUtil) {
-    return new JwtAuthenticationGatewayFilterFactory(jwtTokenUtil);
+  public JwtAuthenticationGatewayFilterFactory jwtAuthenticationGatewayFilter(JwtTokenUtil jwtTokenUtil,
+                                                                              IdentityContextSigner identityContextSigner) {
+    return new JwtAuthenticationGatewayFilterFactory(jwtTokenUtil, identityContextSigner);
   }
 
   /**
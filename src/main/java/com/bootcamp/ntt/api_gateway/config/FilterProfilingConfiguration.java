@@ -0,0 +1,41 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import com.bootcamp.ntt.api_gateway.profiling.FilterProfileEndpoint;
+import com.bootcamp.ntt.api_gateway.profiling.FilterProfiler;
+import com.bootcamp.ntt.api_gateway.profiling.FilterProfilingPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Perfilado opcional de la cadena de filtros (gateway.profiling.enabled=true)
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.profiling.enabled", havingValue = "true")
+public class FilterProfilingConfiguration {
+
+  /**
+   * Muestrea una de cada N peticiones para mantener el coste por petición acotado
+   */
+  @Bean
+  public FilterProfiler filterProfiler(MeterRegistry meterRegistry,
+                                       @Value("${gateway.profiling.sample-every:64}") int sampleEvery) {
+    return new FilterProfiler(meterRegistry, sampleEvery);
+  }
+
+  @Bean
+  public FilterProfileEndpoint filterProfileEndpoint(FilterProfiler filterProfiler) {
+    return new FilterProfileEndpoint(filterProfiler);
+  }
+
+  /**
+   * Static para que el post-processor se registre antes que los beans del gateway
+   */
+  @Bean
+  public static FilterProfilingPostProcessor filterProfilingPostProcessor(ListableBeanFactory beanFactory) {
+    return new FilterProfilingPostProcessor(beanFactory);
+  }
+}
@@ -1,5 +1,6 @@
 package com.bootcamp.ntt.api_gateway.config;
 
+import com.bootcamp.ntt.api_gateway.filter.RequestIdentity;
 import io.netty.handler.timeout.TimeoutException;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
@@ -68,11 +69,10 @@ public class GatewayConfig {
   @Bean
   public KeyResolver userKeyResolver() {
     return exchange -> {
-      String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
-      if (authHeader != null && authHeader.startsWith("Bearer ")) {
+      // Desde el atributo: en modo context JwtAuthentication ya quitó el header Authorization
+      String token = RequestIdentity.bearerToken(exchange);
+      if (token != null) {
         try {
-          // Extraer username del token si está presente
-          String token = authHeader.substring(7);
           // Aquí podrías usar JwtTokenUtil para extraer el username
           return Mono.just("user-" + token.hashCode());
         } catch (Exception e) {
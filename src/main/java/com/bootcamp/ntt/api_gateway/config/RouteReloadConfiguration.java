@@ -0,0 +1,21 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import com.bootcamp.ntt.api_gateway.route.IncrementalRouteLocatorPostProcessor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Recarga incremental de rutas al refrescar desde Config Server
+ * (gateway.routes.incremental-reload.enabled, activo por defecto)
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.routes.incremental-reload.enabled", havingValue = "true", matchIfMissing = true)
+public class RouteReloadConfiguration {
+
+  @Bean
+  public static IncrementalRouteLocatorPostProcessor incrementalRouteLocatorPostProcessor(ListableBeanFactory beanFactory) {
+    return new IncrementalRouteLocatorPostProcessor(beanFactory);
+  }
+}
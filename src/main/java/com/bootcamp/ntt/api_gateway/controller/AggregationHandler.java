@@ -0,0 +1,256 @@
+package com.bootcamp.ntt.api_gateway.controller;
+
+import com.bootcamp.ntt.api_gateway.config.AggregationProperties;
+import com.bootcamp.ntt.api_gateway.filter.RequestIdentity;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Resuelve un endpoint de agregación: llama en paralelo a cada rama a través de las rutas
+ * del propio gateway (JwtAuthentication, RoleBasedAuth, rate limiting, circuit breakers y
+ * control de admisión se aplican por rama), aplica timeout y fallback por rama y va escribiendo
+ * el JSON combinado a medida que las ramas responden. Las ramas degradadas se listan en "degraded".
+ */
+@Slf4j
+public class AggregationHandler {
+
+  private static final byte[] NULL_JSON = "null".getBytes(StandardCharsets.UTF_8);
+
+  private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+  private static final String[] CLIENT_IP_HEADERS = {"X-Real-IP", "X-Client-IP"};
+
+  private final JwtTokenUtil jwtTokenUtil;
+  private final FallbackController fallbackController;
+  private final ObjectMapper objectMapper;
+  private final WebClient webClient;
+  private final Supplier<String> gatewayBaseUrl;
+
+  /**
+   * @param gatewayBaseUrl URL local del propio gateway, resuelta por petición porque el puerto
+   *                       sólo se conoce una vez arrancado el servidor
+   */
+  public AggregationHandler(JwtTokenUtil jwtTokenUtil, FallbackController fallbackController,
+                            ObjectMapper objectMapper, WebClient webClient, Supplier<String> gatewayBaseUrl) {
+    this.jwtTokenUtil = jwtTokenUtil;
+    this.fallbackController = fallbackController;
+    this.objectMapper = objectMapper;
+    this.webClient = webClient;
+    this.gatewayBaseUrl = gatewayBaseUrl;
+  }
+
+  public Mono<ServerResponse> handle(AggregationProperties.Endpoint endpoint, ServerRequest request) {
+    String token = RequestIdentity.bearerToken(request.exchange());
+    if (token == null) {
+      log.warn("Missing or invalid Authorization header");
+      return unauthorized(request);
+    }
+
+    // Las ramas vuelven a autenticarse en su ruta; aquí sólo se leen los claims para las variables
+    IdentityContext identity;
+    try {
+      identity = jwtTokenUtil.extractIdentity(token);
+    } catch (Exception e) {
+      log.warn("Invalid JWT token: {}", e.getMessage());
+      return unauthorized(request);
+    }
+
+    // Los valores del token se aplican al final: una variable del path no puede suplantar la identidad
+    Map<String, String> variables = new HashMap<>(request.pathVariables());
+    putIdentity(variables, "userId", identity.getUserId());
+    putIdentity(variables, "customerId", identity.getCustomerId());
+    putIdentity(variables, "username", identity.getUsername());
+
+    String authorization = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+    String forwardedFor = forwardedFor(request);
+    List<String> degraded = Collections.synchronizedList(new ArrayList<>());
+
+    List<Mono<byte[]>> branches = endpoint.getBranches().stream()
+      .map(branch -> fetch(branch, variables, authorization, forwardedFor, degraded))
+      .collect(Collectors.toList());
+
+    // Cada rama se escribe en cuanto responde; el cierre incluye las ramas degradadas
+    AtomicBoolean first = new AtomicBoolean(true);
+    Flux<byte[]> entries = Flux.merge(branches)
+      .map(entry -> first.getAndSet(false) ? entry : concat(",", entry));
+    Flux<byte[]> body = Flux.concat(
+      Mono.just("{".getBytes(StandardCharsets.UTF_8)),
+      entries,
+      Mono.fromCallable(() -> closing(first.get(), degraded)));
+
+    return ServerResponse.ok()
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(BodyInserters.fromDataBuffers(body.map(this::wrap)));
+  }
+
+  private Mono<byte[]> fetch(AggregationProperties.Branch branch, Map<String, String> variables,
+                             String authorization, String forwardedFor, List<String> degraded) {
+    return Mono.defer(() -> {
+        // encode() antes de expandir: los valores de las variables no pueden introducir '/' ni '..'
+        URI uri = UriComponentsBuilder.fromHttpUrl(gatewayBaseUrl.get() + branch.getPath())
+          .encode()
+          .buildAndExpand(variables)
+          .toUri();
+
+        return webClient.get()
+          .uri(uri)
+          .header(HttpHeaders.AUTHORIZATION, authorization)
+          .headers(headers -> {
+            if (forwardedFor != null) {
+              headers.set(FORWARDED_FOR_HEADER, forwardedFor);
+            }
+          })
+          .accept(MediaType.APPLICATION_JSON)
+          .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+            ? response.bodyToMono(byte[].class)
+            .map(body -> requireJson(response.headers().contentType(), body))
+            .defaultIfEmpty(NULL_JSON)
+            : response.releaseBody().then(Mono.<byte[]>error(
+            new IllegalStateException("Gateway route responded " + response.rawStatusCode()))));
+      })
+      .timeout(branch.getTimeout())
+      .onErrorResume(e -> {
+        log.warn("Aggregation branch '{}' failed, using fallback: {}", branch.getKey(), e.getMessage());
+        degraded.add(branch.getKey());
+        String service = branch.getFallback() != null ? branch.getFallback() : branch.getKey();
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(fallbackController.fallbackBody(service)));
+      })
+      .map(json -> entry(branch.getKey(), json));
+  }
+
+  /**
+   * El cuerpo se copia tal cual al documento combinado, así que debe ser un único valor JSON;
+   * si no lo es, la rama se trata como degradada
+   */
+  private byte[] requireJson(Optional<MediaType> contentType, byte[] body) {
+    if (contentType.isEmpty() || !isJson(contentType.get())) {
+      throw new IllegalStateException("Gateway route returned non-JSON content type: "
+        + contentType.map(MediaType::toString).orElse("none"));
+    }
+    try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+      if (parser.nextToken() == null) {
+        throw new IllegalStateException("Gateway route returned an empty JSON body");
+      }
+      parser.skipChildren();
+      if (parser.nextToken() != null) {
+        throw new IllegalStateException("Gateway route returned trailing content after the JSON value");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Gateway route returned invalid JSON: " + e.getMessage());
+    }
+    return body;
+  }
+
+  private static boolean isJson(MediaType contentType) {
+    return MediaType.APPLICATION_JSON.isCompatibleWith(contentType) || "json".equalsIgnoreCase(contentType.getSubtypeSuffix());
+  }
+
+  private byte[] entry(String key, byte[] json) {
+    return concat(quote(key) + ":", json);
+  }
+
+  private byte[] closing(boolean empty, List<String> degraded) throws JsonProcessingException {
+    String prefix = empty ? "" : ",";
+    return (prefix + quote(AggregationProperties.DEGRADED_KEY) + ":" + objectMapper.writeValueAsString(degraded) + "}")
+      .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private String quote(String value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] concat(String prefix, byte[] json) {
+    byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+    byte[] result = new byte[prefixBytes.length + json.length];
+    System.arraycopy(prefixBytes, 0, result, 0, prefixBytes.length);
+    System.arraycopy(json, 0, result, prefixBytes.length, json.length);
+    return result;
+  }
+
+  private DataBuffer wrap(byte[] bytes) {
+    return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+  }
+
+  /**
+   * Las ramas llegan al gateway por loopback: sin esta cadena el ipKeyResolver y el log verían
+   * 127.0.0.1 para todos los clientes. Se añade la dirección remota a la cadena X-Forwarded-For
+   * recibida o, si no la hay, a la IP que el cliente declaró en X-Real-IP / X-Client-IP.
+   */
+  private static String forwardedFor(ServerRequest request) {
+    String chain = request.headers().firstHeader(FORWARDED_FOR_HEADER);
+    for (int i = 0; isBlank(chain) && i < CLIENT_IP_HEADERS.length; i++) {
+      chain = request.headers().firstHeader(CLIENT_IP_HEADERS[i]);
+    }
+
+    String remote = request.remoteAddress()
+      .filter(address -> address.getAddress() != null)
+      .map(address -> address.getAddress().getHostAddress())
+      .orElse(null);
+    if (remote == null) {
+      return isBlank(chain) ? null : chain;
+    }
+    return isBlank(chain) ? remote : chain + ", " + remote;
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank() || "unknown".equalsIgnoreCase(value);
+  }
+
+  private static void putIdentity(Map<String, String> variables, String name, String value) {
+    if (value != null) {
+      variables.put(name, value);
+    } else {
+      variables.remove(name);
+    }
+  }
+
+  private Mono<ServerResponse> unauthorized(ServerRequest request) {
+    String body = String.format(
+      "{\n" +
+        "  \"error\": \"Unauthorized\",\n" +
+        "  \"message\": \"Invalid or missing authentication token\",\n" +
+        "  \"timestamp\": \"%s\",\n" +
+        "  \"path\": \"%s\"\n" +
+        "}",
+      OffsetDateTime.now(),
+      request.path()
+    );
+
+    return ServerResponse.status(HttpStatus.UNAUTHORIZED)
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(body);
+  }
+}
@@ -52,15 +52,25 @@ public class FallbackController {
     return createFallbackResponse("Reports service is temporarily unavailable", "REPORTS_SERVICE_DOWN");
   }
 
+  /**
+   * Cuerpo de fallback de un servicio (customer, account, ...), reutilizado por las agregaciones
+   */
+  public ErrorResponse fallbackBody(String service) {
+    String name = service.substring(0, 1).toUpperCase() + service.substring(1).toLowerCase();
+    return buildErrorResponse(name + " service is temporarily unavailable", service.toUpperCase() + "_SERVICE_DOWN");
+  }
+
   private Mono<ResponseEntity<ErrorResponse>> createFallbackResponse(String message, String errorCode) {
-    ErrorResponse errorResponse = ErrorResponse.builder()
+    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(buildErrorResponse(message, errorCode)));
+  }
+
+  private ErrorResponse buildErrorResponse(String message, String errorCode) {
+    return ErrorResponse.builder()
       .error("Service Unavailable")
       .message(message)
       .errorCode(errorCode)
       .timestamp(OffsetDateTime.now())
       .build();
-
-    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
   }
 
 }
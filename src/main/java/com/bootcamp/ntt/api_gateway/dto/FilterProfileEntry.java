@@ -0,0 +1,17 @@
+package com.bootcamp.ntt.api_gateway.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FilterProfileEntry {
+  private String filter;
+  private String route;
+  private long samples;
+  private long estimatedInvocations;
+  private double sampledTotalMs;
+  private double estimatedCumulativeMs;
+  private double meanMicros;
+  private double maxMicros;
+}
@@ -1,11 +1,14 @@
 package com.bootcamp.ntt.api_gateway.filter;
 
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextSigner;
 import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -23,50 +26,41 @@ import java.time.OffsetDateTime;
 public class JwtAuthenticationGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
 
   private final JwtTokenUtil jwtTokenUtil;
+  private final IdentityContextSigner identityContextSigner;
 
   @Override
   public GatewayFilter apply(Object config) {
     return (exchange, chain) -> {
-      ServerHttpRequest request = exchange.getRequest();
+      // Extraer el token del header Authorization (queda como atributo para el resto de filtros)
+      String token = RequestIdentity.bearerToken(exchange);
 
-      // Extraer el token del header Authorization
-      String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-
-      if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+      if (token == null) {
         log.warn("Missing or invalid Authorization header");
         return handleUnauthorized(exchange);
       }
 
-      String token = authHeader.substring(7);
+      if (identityContextSigner.isEnabled()) {
+        return filterWithIdentityContext(exchange, chain, token);
+      }
 
       try {
-        // Validar el token
-        if (!jwtTokenUtil.validateToken(token)) {
-          log.warn("Invalid JWT token");
-          return handleUnauthorized(exchange);
+        // Validar el token y extraer los claims en un único parseo, salvo que AdmissionControl ya lo hiciera
+        IdentityContext identity = RequestIdentity.identity(exchange);
+        if (identity == null) {
+          identity = jwtTokenUtil.extractIdentity(token);
+          exchange.getAttributes().put(RequestIdentity.IDENTITY_ATTR, identity);
         }
 
-        // Extraer claims y agregar headers para los microservicios
-        String username = jwtTokenUtil.extractUsername(token);
-        String userId = jwtTokenUtil.extractUserId(token);
-        String customerId = jwtTokenUtil.extractCustomerId(token);
-        String role = jwtTokenUtil.extractRole(token);
-        String email = jwtTokenUtil.extractEmail(token);
+        // Headers adicionales para los microservicios, escritos de una sola vez
+        ServerHttpRequest decoratedRequest = RequestIdentity.withIdentityHeaders(exchange.getRequest(), identity, token);
 
-        // Crear request mutado con headers adicionales
-        ServerHttpRequest mutatedRequest = request.mutate()
-          .header("X-User-Username", username)
-          .header("X-User-Id", userId)
-          .header("X-Customer-Id", customerId)
-          .header("X-User-Role", role)
-          .header("X-User-Email", email)
-          .header("X-Auth-Token", token)
-          .build();
+        log.debug("JWT authentication successful for user: {}", identity.getUsername());
 
-        log.debug("JWT authentication successful for user: {}", username);
-
-        return chain.filter(exchange.mutate().request(mutatedRequest).build());
+        return chain.filter(exchange.mutate().request(decoratedRequest).build());
 
+      } catch (JwtException | IllegalArgumentException e) {
+        log.warn("Invalid JWT token: {}", e.getMessage());
+        return handleUnauthorized(exchange);
       } catch (Exception e) {
         log.error("JWT authentication failed: {}", e.getMessage());
         return handleUnauthorized(exchange);
@@ -74,6 +68,40 @@ public class JwtAuthenticationGatewayFilterFactory extends AbstractGatewayFilter
     };
   }
 
+  /**
+   * Propaga un único header firmado en lugar de los X-User-* y el token completo
+   */
+  private Mono<Void> filterWithIdentityContext(ServerWebExchange exchange, GatewayFilterChain chain, String token) {
+    try {
+      IdentityContext identity = RequestIdentity.identity(exchange);
+      if (identity == null) {
+        identity = identityContextSigner.cachedIdentity(token);
+      }
+      String identityContext = identity != null ? identityContextSigner.cachedContext(token) : null;
+
+      if (identityContext == null) {
+        if (identity == null) {
+          identity = jwtTokenUtil.extractIdentity(token);
+        }
+        identityContext = identityContextSigner.signAndCache(token, identity);
+
+        log.debug("JWT authentication successful for user: {}", identity.getUsername());
+      }
+      exchange.getAttributes().put(RequestIdentity.IDENTITY_ATTR, identity);
+
+      ServerHttpRequest decoratedRequest = RequestIdentity.withIdentityContext(exchange.getRequest(), identityContext);
+
+      return chain.filter(exchange.mutate().request(decoratedRequest).build());
+
+    } catch (JwtException | IllegalArgumentException e) {
+      log.warn("Invalid JWT token: {}", e.getMessage());
+      return handleUnauthorized(exchange);
+    } catch (Exception e) {
+      log.error("JWT authentication failed: {}", e.getMessage());
+      return handleUnauthorized(exchange);
+    }
+  }
+
   private Mono<Void> handleUnauthorized(ServerWebExchange exchange) {
     ServerHttpResponse response = exchange.getResponse();
     response.setStatusCode(HttpStatus.UNAUTHORIZED);
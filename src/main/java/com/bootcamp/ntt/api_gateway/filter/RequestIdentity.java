@@ -0,0 +1,132 @@
+package com.bootcamp.ntt.api_gateway.filter;
+
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextVerifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decoración de la petición autenticada: el token se extrae una vez por petición y se comparte
+ * como atributo del exchange, y los headers de identidad se escriben de una sola vez sobre una
+ * copia pre-dimensionada de sólo lectura en lugar de mutar la petición header a header.
+ */
+public final class RequestIdentity {
+
+  public static final String TOKEN_ATTR = RequestIdentity.class.getName() + ".token";
+  public static final String IDENTITY_ATTR = RequestIdentity.class.getName() + ".identity";
+
+  public static final String USERNAME_HEADER = "X-User-Username";
+  public static final String USER_ID_HEADER = "X-User-Id";
+  public static final String CUSTOMER_ID_HEADER = "X-Customer-Id";
+  public static final String ROLE_HEADER = "X-User-Role";
+  public static final String EMAIL_HEADER = "X-User-Email";
+  public static final String AUTH_TOKEN_HEADER = "X-Auth-Token";
+
+  private static final String[] IDENTITY_HEADERS = {
+    USERNAME_HEADER, USER_ID_HEADER, CUSTOMER_ID_HEADER, ROLE_HEADER, EMAIL_HEADER, AUTH_TOKEN_HEADER
+  };
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private RequestIdentity() {
+  }
+
+  /**
+   * Token Bearer de la petición, o null si no hay header Authorization válido.
+   * La primera llamada lo guarda en TOKEN_ATTR y las siguientes lo reutilizan.
+   */
+  public static String bearerToken(ServerWebExchange exchange) {
+    String token = exchange.getAttribute(TOKEN_ATTR);
+    if (token != null) {
+      return token;
+    }
+
+    String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+      return null;
+    }
+
+    token = authHeader.substring(BEARER_PREFIX.length());
+    exchange.getAttributes().put(TOKEN_ATTR, token);
+    return token;
+  }
+
+  /**
+   * Identidad ya validada por JwtAuthentication en esta petición, o null
+   */
+  public static IdentityContext identity(ServerWebExchange exchange) {
+    return exchange.getAttribute(IDENTITY_ATTR);
+  }
+
+  /**
+   * Petición con los headers X-User-* y X-Auth-Token; los claims ausentes no se envían
+   */
+  public static ServerHttpRequest withIdentityHeaders(ServerHttpRequest request, IdentityContext identity, String token) {
+    HttpHeaders headers = copyOf(request.getHeaders(), IDENTITY_HEADERS.length);
+    putIfPresent(headers, USERNAME_HEADER, identity.getUsername());
+    putIfPresent(headers, USER_ID_HEADER, identity.getUserId());
+    putIfPresent(headers, CUSTOMER_ID_HEADER, identity.getCustomerId());
+    putIfPresent(headers, ROLE_HEADER, identity.getRole());
+    putIfPresent(headers, EMAIL_HEADER, identity.getEmail());
+    headers.put(AUTH_TOKEN_HEADER, Collections.singletonList(token));
+    return new DecoratedRequest(request, headers);
+  }
+
+  /**
+   * Petición con el contexto de identidad firmado; se eliminan los X-User-* y X-Auth-Token
+   * que envíe el cliente, ya que en este modo el gateway no los sobrescribe, y también el
+   * Authorization: el JWT no viaja más allá del gateway (los filtros posteriores usan TOKEN_ATTR)
+   */
+  public static ServerHttpRequest withIdentityContext(ServerHttpRequest request, String identityContext) {
+    HttpHeaders headers = copyOf(request.getHeaders(), 1);
+    for (String name : IDENTITY_HEADERS) {
+      headers.remove(name);
+    }
+    headers.remove(HttpHeaders.AUTHORIZATION);
+    headers.put(IdentityContextVerifier.HEADER_NAME, Collections.singletonList(identityContext));
+    return new DecoratedRequest(request, headers);
+  }
+
+  /**
+   * Copia dimensionada para los headers originales más los añadidos; las listas de valores
+   * originales se comparten porque ambas vistas son de sólo lectura.
+   */
+  private static HttpHeaders copyOf(HttpHeaders original, int extra) {
+    LinkedCaseInsensitiveMap<List<String>> map = new LinkedCaseInsensitiveMap<>(original.size() + extra, Locale.ENGLISH);
+    HttpHeaders headers = new HttpHeaders(CollectionUtils.toMultiValueMap(map));
+    headers.putAll(original);
+    return headers;
+  }
+
+  private static void putIfPresent(HttpHeaders headers, String name, String value) {
+    if (value != null) {
+      headers.put(name, Collections.singletonList(value));
+    } else {
+      // Un cliente no puede inyectar un claim que el token no trae
+      headers.remove(name);
+    }
+  }
+
+  private static final class DecoratedRequest extends ServerHttpRequestDecorator {
+
+    private final HttpHeaders headers;
+
+    private DecoratedRequest(ServerHttpRequest delegate, HttpHeaders headers) {
+      super(delegate);
+      this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.bootcamp.ntt.api_gateway.filter;
 
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
 import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
@@ -12,9 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import lombok.extern.slf4j.Slf4j;
@@ -36,19 +35,16 @@ public class RoleBasedAuthGatewayFilterFactory extends AbstractGatewayFilterFact
   @Override
   public GatewayFilter apply(Config config) {
     return (exchange, chain) -> {
-      ServerHttpRequest request = exchange.getRequest();
+      // El JWT ya fue validado por JwtAuthenticationFilter, que deja la identidad como atributo
+      IdentityContext identity = RequestIdentity.identity(exchange);
+      String token = identity == null ? RequestIdentity.bearerToken(exchange) : null;
 
-      // El JWT ya fue validado por JwtAuthenticationFilter
-      String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-
-      if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+      if (identity == null && token == null) {
         return handleForbidden(exchange, "Missing authentication token");
       }
 
-      String token = authHeader.substring(7);
-
       try {
-        String userRole = jwtTokenUtil.extractRole(token);
+        String userRole = identity != null ? identity.getRole() : jwtTokenUtil.extractRole(token);
         String requiredRole = config.getRequiredRole();
 
         log.debug("User role: {}, Required role: {}", userRole, requiredRole);
@@ -0,0 +1,19 @@
+package com.bootcamp.ntt.api_gateway.identity;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Identidad autenticada que el gateway propaga a los microservicios
+ */
+@Value
+@Builder
+public class IdentityContext {
+  String username;
+  String userId;
+  String customerId;
+  String role;
+  String email;
+  /** Expiración del JWT de origen, en segundos epoch */
+  long expiresAt;
+}
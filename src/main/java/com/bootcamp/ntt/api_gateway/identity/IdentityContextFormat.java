@@ -0,0 +1,138 @@
+package com.bootcamp.ntt.api_gateway.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Formato binario del header de contexto, compartido por firmante y verificador:
+ * <pre>
+ * version(1) | expiresAt(8) | 5 x [longitud(2) | UTF-8] | HMAC-SHA256 truncado(16)
+ * </pre>
+ * Campos: username, userId, customerId, role, email. Longitud -1 indica null.
+ * El resultado viaja en base64url sin padding.
+ */
+final class IdentityContextFormat {
+
+  static final byte VERSION = 1;
+  static final int MAC_LENGTH = 16;
+  static final int MIN_SECRET_LENGTH = 32;
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+  private static final int FIXED_LENGTH = 1 + Long.BYTES;
+  private static final int FIELD_COUNT = 5;
+
+  private IdentityContextFormat() {
+  }
+
+  static ThreadLocal<Mac> macFor(byte[] secret) {
+    if (secret == null || secret.length < MIN_SECRET_LENGTH) {
+      throw new IllegalArgumentException("Identity context secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+    }
+    SecretKeySpec key = new SecretKeySpec(secret, MAC_ALGORITHM);
+    return ThreadLocal.withInitial(() -> {
+      try {
+        Mac mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(key);
+        return mac;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("HmacSHA256 not available", e);
+      }
+    });
+  }
+
+  static byte[] write(IdentityContext context, Mac mac) {
+    byte[][] fields = {
+      utf8(context.getUsername()),
+      utf8(context.getUserId()),
+      utf8(context.getCustomerId()),
+      utf8(context.getRole()),
+      utf8(context.getEmail())
+    };
+
+    int length = FIXED_LENGTH + FIELD_COUNT * Short.BYTES + MAC_LENGTH;
+    for (byte[] field : fields) {
+      length += field == null ? 0 : field.length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    buffer.put(VERSION);
+    buffer.putLong(context.getExpiresAt());
+    for (byte[] field : fields) {
+      if (field == null) {
+        buffer.putShort((short) -1);
+      } else {
+        buffer.putShort((short) field.length);
+        buffer.put(field);
+      }
+    }
+
+    mac.update(buffer.array(), 0, buffer.position());
+    buffer.put(mac.doFinal(), 0, MAC_LENGTH);
+    return buffer.array();
+  }
+
+  /**
+   * Devuelve null si el formato o la firma no son válidos
+   */
+  static IdentityContext read(byte[] bytes, Mac mac) {
+    if (bytes.length < FIXED_LENGTH + FIELD_COUNT * Short.BYTES + MAC_LENGTH) {
+      return null;
+    }
+
+    int recordLength = bytes.length - MAC_LENGTH;
+    mac.update(bytes, 0, recordLength);
+    byte[] expected = Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+    byte[] actual = Arrays.copyOfRange(bytes, recordLength, bytes.length);
+    if (!MessageDigest.isEqual(expected, actual)) {
+      return null;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, recordLength);
+    if (buffer.get() != VERSION) {
+      return null;
+    }
+    long expiresAt = buffer.getLong();
+
+    String[] fields = new String[FIELD_COUNT];
+    for (int i = 0; i < FIELD_COUNT; i++) {
+      if (buffer.remaining() < Short.BYTES) {
+        return null;
+      }
+      short fieldLength = buffer.getShort();
+      if (fieldLength == -1) {
+        continue;
+      }
+      int unsignedLength = fieldLength & 0xFFFF;
+      if (buffer.remaining() < unsignedLength) {
+        return null;
+      }
+      fields[i] = new String(bytes, buffer.position(), unsignedLength, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + unsignedLength);
+    }
+
+    return IdentityContext.builder()
+      .username(fields[0])
+      .userId(fields[1])
+      .customerId(fields[2])
+      .role(fields[3])
+      .email(fields[4])
+      .expiresAt(expiresAt)
+      .build();
+  }
+
+  private static byte[] utf8(String value) {
+    if (value == null) {
+      return null;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length >= 0xFFFF) {
+      throw new IllegalArgumentException("Identity context field too long");
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,144 @@
+package com.bootcamp.ntt.api_gateway.identity;
+
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Firma el contexto de identidad que sustituye a los headers X-User-* y X-Auth-Token
+ * cuando gateway.identity.propagation=context. El header se cachea por token
+ * hasta su expiración, así que un token repetido no vuelve a parsear el JWT.
+ * El secreto es propio (gateway.identity.context-secret) y distinto de JWT_SECRET: los
+ * microservicios que verifican el contexto no deben poder firmar JWT que el gateway acepte.
+ */
+@Component
+@Slf4j
+public class IdentityContextSigner {
+
+  public static final String MODE_HEADERS = "headers";
+  public static final String MODE_CONTEXT = "context";
+
+  @Value("${gateway.identity.propagation:" + MODE_HEADERS + "}")
+  private String propagation;
+
+  @Value("${gateway.identity.context-secret:}")
+  private String secret;
+
+  @Value("${JWT_SECRET:" + JwtTokenUtil.DEFAULT_SECRET + "}")
+  private String jwtSecret;
+
+  @Value("${gateway.identity.cache-size:10000}")
+  private int cacheSize;
+
+  private final ConcurrentMap<String, CachedContext> cache = new ConcurrentHashMap<>();
+  private ThreadLocal<Mac> mac;
+
+  @PostConstruct
+  void init() {
+    if (!isEnabled()) {
+      return;
+    }
+    if (secret == null || secret.isEmpty()) {
+      throw new IllegalStateException("gateway.identity.context-secret is required for context propagation");
+    }
+    if (secret.equals(jwtSecret)) {
+      throw new IllegalStateException("gateway.identity.context-secret must differ from JWT_SECRET");
+    }
+    mac = IdentityContextFormat.macFor(secret.getBytes(StandardCharsets.UTF_8));
+    log.info("Identity propagation mode: {} header", IdentityContextVerifier.HEADER_NAME);
+  }
+
+  public boolean isEnabled() {
+    return MODE_CONTEXT.equalsIgnoreCase(propagation);
+  }
+
+  /**
+   * Header ya firmado para este token, o null si no está en caché o expiró
+   */
+  public String cachedContext(String token) {
+    CachedContext cached = lookup(token);
+    return cached != null ? cached.headerValue : null;
+  }
+
+  /**
+   * Identidad firmada para este token, o null si no está en caché o expiró
+   */
+  public IdentityContext cachedIdentity(String token) {
+    CachedContext cached = lookup(token);
+    return cached != null ? cached.identity : null;
+  }
+
+  /**
+   * Firma el contexto de un token ya validado y lo guarda en caché
+   */
+  public String signAndCache(String token, IdentityContext context) {
+    String headerValue = Base64.getUrlEncoder().withoutPadding()
+      .encodeToString(IdentityContextFormat.write(context, mac.get()));
+
+    if (cache.size() >= cacheSize) {
+      evict();
+    }
+    cache.put(token, new CachedContext(headerValue, context));
+    return headerValue;
+  }
+
+  /**
+   * Al llenarse la caché se eliminan los expirados y, si no basta, la décima parte usada hace más
+   * tiempo; el resto de tokens activos conserva su entrada y no vuelve a parsear el JWT
+   */
+  private synchronized void evict() {
+    if (cache.size() < cacheSize) {
+      return;
+    }
+    long now = Instant.now().getEpochSecond();
+    cache.entrySet().removeIf(entry -> entry.getValue().identity.getExpiresAt() <= now);
+
+    int excess = cache.size() - (cacheSize - Math.max(1, cacheSize / 10));
+    if (excess <= 0) {
+      return;
+    }
+    List<Map.Entry<String, CachedContext>> leastRecentlyUsed = cache.entrySet().stream()
+      .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+      .limit(excess)
+      .collect(Collectors.toList());
+    leastRecentlyUsed.forEach(entry -> cache.remove(entry.getKey(), entry.getValue()));
+    log.debug("Identity context cache full, evicted {} least recently used entries", leastRecentlyUsed.size());
+  }
+
+  private CachedContext lookup(String token) {
+    CachedContext cached = cache.get(token);
+    if (cached == null) {
+      return null;
+    }
+    if (cached.identity.getExpiresAt() <= Instant.now().getEpochSecond()) {
+      cache.remove(token, cached);
+      return null;
+    }
+    cached.lastAccess = System.nanoTime();
+    return cached;
+  }
+
+  private static final class CachedContext {
+    private final String headerValue;
+    private final IdentityContext identity;
+    private volatile long lastAccess = System.nanoTime();
+
+    private CachedContext(String headerValue, IdentityContext identity) {
+      this.headerValue = headerValue;
+      this.identity = identity;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.bootcamp.ntt.api_gateway.identity;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verificador del header {@value #HEADER_NAME} para los microservicios.
+ * No depende de Spring ni de JJWT: basta con compartir el secreto del gateway.
+ * <pre>
+ * IdentityContextVerifier verifier = new IdentityContextVerifier(secret);
+ * Optional&lt;IdentityContext&gt; identity = verifier.verify(request.getHeader(IdentityContextVerifier.HEADER_NAME));
+ * </pre>
+ */
+public final class IdentityContextVerifier {
+
+  public static final String HEADER_NAME = "X-Identity-Context";
+
+  private final ThreadLocal<Mac> mac;
+  private final Clock clock;
+
+  public IdentityContextVerifier(String secret) {
+    this(secret.getBytes(StandardCharsets.UTF_8), Clock.systemUTC());
+  }
+
+  public IdentityContextVerifier(byte[] secret, Clock clock) {
+    this.mac = IdentityContextFormat.macFor(secret);
+    this.clock = clock;
+  }
+
+  /**
+   * Devuelve la identidad si el header está bien formado, firmado por el gateway y no ha expirado
+   */
+  public Optional<IdentityContext> verify(String headerValue) {
+    if (headerValue == null || headerValue.isEmpty()) {
+      return Optional.empty();
+    }
+
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(headerValue);
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+
+    IdentityContext context = IdentityContextFormat.read(bytes, mac.get());
+    if (context == null || context.getExpiresAt() <= clock.instant().getEpochSecond()) {
+      return Optional.empty();
+    }
+    return Optional.of(context);
+  }
+}
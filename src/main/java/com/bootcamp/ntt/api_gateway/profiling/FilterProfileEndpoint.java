@@ -0,0 +1,44 @@
+package com.bootcamp.ntt.api_gateway.profiling;
+
+import com.bootcamp.ntt.api_gateway.dto.FilterProfileEntry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Endpoint /actuator/filterprofile: filtros ordenados por coste acumulado
+ */
+@Endpoint(id = "filterprofile")
+public class FilterProfileEndpoint {
+
+  private final FilterProfiler profiler;
+
+  public FilterProfileEndpoint(FilterProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  @ReadOperation
+  public Map<String, Object> profile() {
+    return response(profiler.snapshot());
+  }
+
+  @ReadOperation
+  public Map<String, Object> routeProfile(@Selector String route) {
+    return response(profiler.snapshot().stream()
+      .filter(entry -> route.equals(entry.getRoute()))
+      .collect(Collectors.toList()));
+  }
+
+  private Map<String, Object> response(List<FilterProfileEntry> entries) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("sampleEvery", profiler.getSampleEvery());
+    body.put("metric", FilterProfiler.METRIC_NAME);
+    body.put("filters", entries);
+    return body;
+  }
+}
@@ -0,0 +1,145 @@
+package com.bootcamp.ntt.api_gateway.profiling;
+
+import com.bootcamp.ntt.api_gateway.dto.FilterProfileEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra el tiempo síncrono que cada filtro consume antes de ceder el control
+ * al siguiente eslabón de la cadena, por filtro y por ruta.
+ * Sólo se mide una de cada {@code sampleEvery} peticiones.
+ */
+public class FilterProfiler {
+
+  public static final String METRIC_NAME = "gateway.filter.sync.time";
+
+  private static final String SAMPLED_ATTR = FilterProfiler.class.getName() + ".sampled";
+  private static final String UNKNOWN_ROUTE = "unknown";
+
+  private final MeterRegistry meterRegistry;
+  private final int sampleEvery;
+  private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+  public FilterProfiler(MeterRegistry meterRegistry, int sampleEvery) {
+    this.meterRegistry = meterRegistry;
+    this.sampleEvery = Math.max(1, sampleEvery);
+  }
+
+  public int getSampleEvery() {
+    return sampleEvery;
+  }
+
+  /**
+   * Ejecuta el filtro y, si la petición está muestreada, mide hasta que invoca la cadena
+   * (o hasta que retorna, si corta la cadena o la difiere a otro hilo).
+   */
+  public Mono<Void> profile(String filterName, GatewayFilter delegate,
+                            ServerWebExchange exchange, GatewayFilterChain chain) {
+    if (!isSampled(exchange)) {
+      return delegate.filter(exchange, chain);
+    }
+
+    HandoffChain timedChain = new HandoffChain(chain, System.nanoTime());
+    Mono<Void> result = delegate.filter(exchange, timedChain);
+    record(filterName, routeId(exchange), timedChain.elapsedNanos());
+    return result;
+  }
+
+  /**
+   * Filtros ordenados por coste acumulado estimado, de mayor a menor
+   */
+  public List<FilterProfileEntry> snapshot() {
+    List<FilterProfileEntry> entries = new ArrayList<>();
+    timers.forEach((filterName, byRoute) -> byRoute.forEach((routeId, timer) -> {
+      long samples = timer.count();
+      double totalMs = timer.totalTime(TimeUnit.MILLISECONDS);
+      entries.add(FilterProfileEntry.builder()
+        .filter(filterName)
+        .route(routeId)
+        .samples(samples)
+        .estimatedInvocations(samples * sampleEvery)
+        .sampledTotalMs(totalMs)
+        .estimatedCumulativeMs(totalMs * sampleEvery)
+        .meanMicros(timer.mean(TimeUnit.MICROSECONDS))
+        .maxMicros(timer.max(TimeUnit.MICROSECONDS))
+        .build());
+    }));
+    entries.sort(Comparator.comparingDouble(FilterProfileEntry::getEstimatedCumulativeMs).reversed());
+    return entries;
+  }
+
+  private boolean isSampled(ServerWebExchange exchange) {
+    Boolean sampled = exchange.getAttribute(SAMPLED_ATTR);
+    if (sampled == null) {
+      sampled = sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0;
+      exchange.getAttributes().put(SAMPLED_ATTR, sampled);
+    }
+    return sampled;
+  }
+
+  private String routeId(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : UNKNOWN_ROUTE;
+  }
+
+  private void record(String filterName, String routeId, long nanos) {
+    ConcurrentMap<String, Timer> byRoute = timers.get(filterName);
+    if (byRoute == null) {
+      byRoute = timers.computeIfAbsent(filterName, key -> new ConcurrentHashMap<>());
+    }
+
+    Timer timer = byRoute.get(routeId);
+    if (timer == null) {
+      timer = byRoute.computeIfAbsent(routeId, key -> Timer.builder(METRIC_NAME)
+        .description("Synchronous time spent in a gateway filter before handing off to the chain")
+        .tag("filter", filterName)
+        .tag("route", routeId)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+    }
+    timer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Cadena que anota el instante en que el filtro le cede el control
+   */
+  private static final class HandoffChain implements GatewayFilterChain {
+
+    private final GatewayFilterChain delegate;
+    private final long startNanos;
+    private long handoffNanos;
+    private boolean handedOff;
+
+    private HandoffChain(GatewayFilterChain delegate, long startNanos) {
+      this.delegate = delegate;
+      this.startNanos = startNanos;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange) {
+      if (!handedOff) {
+        handoffNanos = System.nanoTime();
+        handedOff = true;
+      }
+      return delegate.filter(exchange);
+    }
+
+    private long elapsedNanos() {
+      return (handedOff ? handoffNanos : System.nanoTime()) - startNanos;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.bootcamp.ntt.api_gateway.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Sustituye el FilteringWebHandler por uno con los filtros globales instrumentados
+ * y envuelve los RouteLocator para instrumentar los filtros de cada ruta.
+ * Los beans GlobalFilter no se reemplazan, así que conservan su tipo original.
+ */
+@Slf4j
+public class FilterProfilingPostProcessor implements BeanPostProcessor {
+
+  private final ListableBeanFactory beanFactory;
+
+  public FilterProfilingPostProcessor(ListableBeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof FilteringWebHandler) {
+      log.info("Filter profiling enabled, instrumenting global filters");
+      return new FilteringWebHandler(profiledGlobalFilters());
+    }
+    if (bean instanceof RouteLocator && !(bean instanceof CachingRouteLocator) && !(bean instanceof ProfiledRouteLocator)) {
+      log.debug("Instrumenting route filters from route locator: {}", beanName);
+      return new ProfiledRouteLocator((RouteLocator) bean, profiler());
+    }
+    return bean;
+  }
+
+  private List<GlobalFilter> profiledGlobalFilters() {
+    FilterProfiler profiler = profiler();
+
+    Map<GlobalFilter, String> beanNames = new IdentityHashMap<>();
+    beanFactory.getBeansOfType(GlobalFilter.class).forEach((name, filter) -> beanNames.put(filter, name));
+
+    // Mismo orden en que Spring inyecta la lista en el FilteringWebHandler original
+    return beanFactory.getBeanProvider(GlobalFilter.class).orderedStream()
+      .map(filter -> ProfiledFilter.global(
+        beanNames.getOrDefault(filter, filter.getClass().getSimpleName()), filter, profiler))
+      .collect(Collectors.toList());
+  }
+
+  private FilterProfiler profiler() {
+    return beanFactory.getBean(FilterProfiler.class);
+  }
+}
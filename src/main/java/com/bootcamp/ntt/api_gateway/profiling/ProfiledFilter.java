@@ -0,0 +1,75 @@
+package com.bootcamp.ntt.api_gateway.profiling;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Envoltorio que mide un filtro global o de ruta conservando su orden original
+ */
+public class ProfiledFilter implements GlobalFilter, GatewayFilter, Ordered {
+
+  private final String name;
+  private final GatewayFilter delegate;
+  private final int order;
+  private final FilterProfiler profiler;
+
+  private ProfiledFilter(String name, GatewayFilter delegate, int order, FilterProfiler profiler) {
+    this.name = name;
+    this.delegate = delegate;
+    this.order = order;
+    this.profiler = profiler;
+  }
+
+  public static ProfiledFilter global(String name, GlobalFilter filter, FilterProfiler profiler) {
+    return new ProfiledFilter(name, filter::filter, orderOf(filter), profiler);
+  }
+
+  public static ProfiledFilter route(GatewayFilter filter, FilterProfiler profiler) {
+    return new ProfiledFilter(nameOf(filter), filter, orderOf(filter), profiler);
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    return profiler.profile(name, delegate, exchange, chain);
+  }
+
+  @Override
+  public int getOrder() {
+    return order;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private static int orderOf(Object filter) {
+    if (filter instanceof Ordered) {
+      return ((Ordered) filter).getOrder();
+    }
+    return OrderUtils.getOrder(filter.getClass(), Ordered.LOWEST_PRECEDENCE);
+  }
+
+  /**
+   * Los filtros de ruta suelen ser lambdas o clases anónimas de su factory,
+   * así que se usa el nombre simple de la clase contenedora.
+   */
+  private static String nameOf(GatewayFilter filter) {
+    Object target = filter;
+    while (target instanceof OrderedGatewayFilter) {
+      target = ((OrderedGatewayFilter) target).getDelegate();
+    }
+
+    String className = target.getClass().getName();
+    int inner = className.indexOf('$');
+    if (inner > 0) {
+      className = className.substring(0, inner);
+    }
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+}
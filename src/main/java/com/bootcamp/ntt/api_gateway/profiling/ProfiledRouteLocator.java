@@ -0,0 +1,67 @@
+package com.bootcamp.ntt.api_gateway.profiling;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * RouteLocator que envuelve los filtros de cada ruta para medirlos.
+ * El envoltorio se construye una vez por instancia de Route de origen, no por petición ni por
+ * carga: las rutas que el delegado reutiliza entre recargas conservan también su ruta envuelta.
+ */
+public class ProfiledRouteLocator implements RouteLocator {
+
+  private final RouteLocator delegate;
+  private final FilterProfiler profiler;
+
+  /**
+   * Rutas envueltas de la última carga completa, por identidad de la ruta de origen;
+   * las que ya no devuelve el delegado se descartan con la carga siguiente
+   */
+  private volatile Map<Route, Route> profiledRoutes = Collections.emptyMap();
+
+  public ProfiledRouteLocator(RouteLocator delegate, FilterProfiler profiler) {
+    this.delegate = delegate;
+    this.profiler = profiler;
+  }
+
+  @Override
+  public Flux<Route> getRoutes() {
+    return Flux.defer(() -> {
+      Map<Route, Route> previous = profiledRoutes;
+      Map<Route, Route> current = new IdentityHashMap<>(Math.max(16, previous.size()));
+      return delegate.getRoutes()
+        .map(route -> {
+          Route profiled = previous.get(route);
+          if (profiled == null) {
+            profiled = profileFilters(route);
+          }
+          current.put(route, profiled);
+          return profiled;
+        })
+        .doOnComplete(() -> profiledRoutes = current);
+    });
+  }
+
+  private Route profileFilters(Route route) {
+    List<GatewayFilter> filters = route.getFilters().stream()
+      .map(filter -> filter instanceof ProfiledFilter ? filter : ProfiledFilter.route(filter, profiler))
+      .collect(Collectors.toList());
+
+    return Route.async()
+      .id(route.getId())
+      .uri(route.getUri())
+      .order(route.getOrder())
+      .asyncPredicate(route.getPredicate())
+      .metadata(route.getMetadata())
+      .filters(filters)
+      .build();
+  }
+}
@@ -0,0 +1,212 @@
+package com.bootcamp.ntt.api_gateway.route;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sustituye al RouteDefinitionRouteLocator: en cada refresco compara las definiciones con
+ * las de la carga anterior y sólo convierte (predicados y GatewayFilterFactory.apply) las
+ * rutas nuevas o modificadas. Las demás conservan su instancia de Route.
+ * El CachingRouteLocator sigue publicando la nueva tabla de golpe, sin bloquear peticiones en curso.
+ */
+@Slf4j
+public class IncrementalRouteLocator implements RouteLocator {
+
+  private static final String DEFINITIONS_KEY = IncrementalRouteLocator.class.getName() + ".definitions";
+
+  private final RouteDefinitionLocator definitionLocator;
+  private final Function<List<RouteDefinition>, Flux<Route>> converter;
+  private final Supplier<List<FilterDefinition>> defaultFilters;
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), null);
+  private volatile Timer reloadTimer;
+  private volatile DistributionSummary changedRoutes;
+
+  public IncrementalRouteLocator(RouteDefinitionLocator definitionLocator,
+                                 Function<List<RouteDefinition>, Flux<Route>> converter,
+                                 Supplier<List<FilterDefinition>> defaultFilters,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+    this.definitionLocator = definitionLocator;
+    this.converter = converter;
+    this.defaultFilters = defaultFilters;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Conversor basado en un único RouteDefinitionRouteLocator; las definiciones a convertir
+   * le llegan por el contexto de Reactor, así que admite recargas concurrentes.
+   */
+  @SuppressWarnings("rawtypes")
+  public static Function<List<RouteDefinition>, Flux<Route>> converter(List<RoutePredicateFactory> predicates,
+                                                                       List<GatewayFilterFactory> filterFactories,
+                                                                       GatewayProperties gatewayProperties,
+                                                                       ConfigurationService configurationService) {
+    RouteDefinitionLocator contextDefinitions = () -> Flux.deferContextual(
+      context -> Flux.fromIterable(context.<List<RouteDefinition>>get(DEFINITIONS_KEY)));
+    RouteDefinitionRouteLocator routeLocator = new RouteDefinitionRouteLocator(
+      contextDefinitions, predicates, filterFactories, gatewayProperties, configurationService);
+
+    return definitions -> definitions.isEmpty()
+      ? Flux.empty()
+      : routeLocator.getRoutes().contextWrite(Context.of(DEFINITIONS_KEY, definitions));
+  }
+
+  @Override
+  public Flux<Route> getRoutes() {
+    return definitionLocator.getRouteDefinitions()
+      .collectList()
+      .flatMapMany(this::reload);
+  }
+
+  private Flux<Route> reload(List<RouteDefinition> definitions) {
+    long start = System.nanoTime();
+    Snapshot previous = snapshot;
+    String currentDefaultFilters = String.valueOf(defaultFilters.get());
+
+    // Si cambian los default-filters todas las rutas cambian
+    boolean rebuildAll = !currentDefaultFilters.equals(previous.defaultFilters);
+
+    // Los ids repetidos se distinguen por su posición, igual que RouteDefinitionRouteLocator mantiene ambas rutas
+    Map<String, Integer> occurrences = new HashMap<>();
+    List<Slot> slots = new ArrayList<>(definitions.size());
+    List<Slot> changed = new ArrayList<>();
+    for (RouteDefinition definition : definitions) {
+      int occurrence = occurrences.merge(definition.getId(), 1, Integer::sum) - 1;
+      Slot slot = new Slot(key(definition.getId(), occurrence), definition);
+      slots.add(slot);
+
+      Entry entry = previous.entries.get(slot.key);
+      if (rebuildAll || entry == null || !entry.fingerprint.equals(fingerprint(definition))) {
+        changed.add(slot);
+      }
+    }
+
+    // Cada definición se convierte por separado para asociar la ruta resultante a su definición
+    return Flux.fromIterable(changed)
+      .concatMap(slot -> converter.apply(Collections.singletonList(slot.definition))
+        .next()
+        .map(route -> new Converted(slot.key, route)))
+      .collectMap(converted -> converted.key, converted -> converted.route)
+      .flatMapIterable(convertedByKey -> {
+        Set<String> changedKeys = new HashSet<>();
+        changed.forEach(slot -> changedKeys.add(slot.key));
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        List<Route> routes = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+          // Una ruta modificada cuya conversión falla se descarta, igual que en RouteDefinitionRouteLocator
+          Route route = changedKeys.contains(slot.key)
+            ? convertedByKey.get(slot.key)
+            : previous.entries.get(slot.key).route;
+          if (route != null) {
+            entries.put(slot.key, new Entry(fingerprint(slot.definition), route));
+            routes.add(route);
+          }
+        }
+
+        int removed = (int) previous.entries.keySet().stream().filter(key -> !entries.containsKey(key)).count();
+        snapshot = new Snapshot(entries, currentDefaultFilters);
+        recordReload(System.nanoTime() - start, changed.size() + removed);
+
+        log.info("Route table reloaded in {} ms: {} routes, {} converted, {} removed",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), routes.size(), convertedByKey.size(), removed);
+        return routes;
+      });
+  }
+
+  private static String key(String id, int occurrence) {
+    return occurrence == 0 ? id : id + "\0" + occurrence;
+  }
+
+  private void recordReload(long nanos, int changedCount) {
+    if (reloadTimer == null) {
+      MeterRegistry registry = meterRegistry.getIfAvailable();
+      if (registry == null) {
+        return;
+      }
+      changedRoutes = DistributionSummary.builder("gateway.routes.reload.changed")
+        .description("Routes added, updated or removed per route table reload")
+        .register(registry);
+      reloadTimer = Timer.builder("gateway.routes.reload.duration")
+        .description("Time to rebuild the route table after a refresh")
+        .register(registry);
+    }
+    reloadTimer.record(nanos, TimeUnit.NANOSECONDS);
+    changedRoutes.record(changedCount);
+  }
+
+  private static final class Snapshot {
+    private final Map<String, Entry> entries;
+    private final String defaultFilters;
+
+    private Snapshot(Map<String, Entry> entries, String defaultFilters) {
+      this.entries = entries;
+      this.defaultFilters = defaultFilters;
+    }
+  }
+
+  /**
+   * Huella textual de la definición: detecta cambios aunque el binder modifique las instancias en sitio
+   */
+  private static String fingerprint(RouteDefinition definition) {
+    return definition.toString();
+  }
+
+  private static final class Slot {
+    private final String key;
+    private final RouteDefinition definition;
+
+    private Slot(String key, RouteDefinition definition) {
+      this.key = key;
+      this.definition = definition;
+    }
+  }
+
+  private static final class Converted {
+    private final String key;
+    private final Route route;
+
+    private Converted(String key, Route route) {
+      this.key = key;
+      this.route = route;
+    }
+  }
+
+  private static final class Entry {
+    private final String fingerprint;
+    private final Route route;
+
+    private Entry(String fingerprint, Route route) {
+      this.fingerprint = fingerprint;
+      this.route = route;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.bootcamp.ntt.api_gateway.route;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reemplaza el RouteDefinitionRouteLocator del autoconfigure por un IncrementalRouteLocator
+ * con las mismas dependencias. Se ejecuta antes que otros post-processors que envuelven RouteLocators.
+ */
+@Slf4j
+public class IncrementalRouteLocatorPostProcessor implements BeanPostProcessor, Ordered {
+
+  private final ListableBeanFactory beanFactory;
+
+  public IncrementalRouteLocatorPostProcessor(ListableBeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof RouteDefinitionRouteLocator)) {
+      return bean;
+    }
+
+    List<RoutePredicateFactory> predicates = beanFactory.getBeanProvider(RoutePredicateFactory.class)
+      .orderedStream().collect(Collectors.toList());
+    List<GatewayFilterFactory> filterFactories = beanFactory.getBeanProvider(GatewayFilterFactory.class)
+      .orderedStream().collect(Collectors.toList());
+    GatewayProperties gatewayProperties = beanFactory.getBean(GatewayProperties.class);
+
+    log.info("Incremental route reload enabled for route locator: {}", beanName);
+    return new IncrementalRouteLocator(
+      beanFactory.getBean(RouteDefinitionLocator.class),
+      IncrementalRouteLocator.converter(predicates, filterFactories, gatewayProperties,
+        beanFactory.getBean(ConfigurationService.class)),
+      gatewayProperties::getDefaultFilters,
+      beanFactory.getBeanProvider(MeterRegistry.class));
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+}
@@ -1,5 +1,6 @@
 package com.bootcamp.ntt.api_gateway.util;
 
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
@@ -15,7 +16,10 @@ import java.util.Date;
 @Slf4j
 public class JwtTokenUtil {
 
-  @Value("${JWT_SECRET:mySuperSecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmAndMeetsSecurityRequirements123456789ABC}")
+  public static final String DEFAULT_SECRET =
+    "mySuperSecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmAndMeetsSecurityRequirements123456789ABC";
+
+  @Value("${JWT_SECRET:" + DEFAULT_SECRET + "}")
   private String secret;
 
   @Value("${JWT_EXPIRATION:864000000}")
@@ -82,6 +86,21 @@ public class JwtTokenUtil {
     return extractAllClaims(token).get("email", String.class);
   }
 
+  /**
+   * Identidad del token en una sola lectura de claims
+   */
+  public IdentityContext extractIdentity(String token) {
+    Claims claims = extractAllClaims(token);
+    return IdentityContext.builder()
+      .username(claims.getSubject())
+      .userId(claims.get("userId", String.class))
+      .customerId(claims.get("customerId", String.class))
+      .role(claims.get("role", String.class))
+      .email(claims.get("email", String.class))
+      .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant().getEpochSecond() : Long.MAX_VALUE)
+      .build();
+  }
+
   public boolean isTokenExpired(String token) {
     return extractAllClaims(token).getExpiration().before(new Date());
   }
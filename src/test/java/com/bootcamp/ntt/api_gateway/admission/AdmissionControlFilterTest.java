@@ -0,0 +1,217 @@
+package com.bootcamp.ntt.api_gateway.admission;
+
+import com.bootcamp.ntt.api_gateway.config.AdmissionProperties;
+import com.bootcamp.ntt.api_gateway.filter.JwtAuthenticationGatewayFilterFactory;
+import com.bootcamp.ntt.api_gateway.filter.RequestIdentity;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextSigner;
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.DefaultEventLoopGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AdmissionControlFilterTest {
+
+  private static final String SECRET = "admissionTestSecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmAndSecurityRequirements";
+
+  private final DefaultEventLoopGroup eventLoops = new DefaultEventLoopGroup(1);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AdmissionProperties properties = new AdmissionProperties();
+  private final AtomicInteger admitted = new AtomicInteger();
+
+  @AfterEach
+  void shutdown() {
+    eventLoops.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void shedsLowestClassesAsOverloadLevelRises() {
+    assertFalse(PriorityClass.LOW.isShedAt(0));
+    assertTrue(PriorityClass.LOW.isShedAt(1));
+    assertFalse(PriorityClass.NORMAL.isShedAt(1));
+    assertTrue(PriorityClass.NORMAL.isShedAt(2));
+    assertFalse(PriorityClass.HIGH.isShedAt(2));
+    assertTrue(PriorityClass.HIGH.isShedAt(3));
+    assertFalse(PriorityClass.CRITICAL.isShedAt(3));
+    assertFalse(PriorityClass.CRITICAL.isShedAt(10));
+  }
+
+  @Test
+  void mapsLagAndInFlightToOverloadLevels() {
+    long threshold = TimeUnit.MILLISECONDS.toNanos(50);
+    assertEquals(0, EventLoopLagMonitor.overloadLevel(threshold - 1, threshold));
+    assertEquals(1, EventLoopLagMonitor.overloadLevel(threshold, threshold));
+    assertEquals(2, EventLoopLagMonitor.overloadLevel(threshold * 2, threshold));
+    assertEquals(3, EventLoopLagMonitor.overloadLevel(threshold * 4, threshold));
+
+    assertEquals(0, AdmissionControlFilter.inFlightLevel(99, 100));
+    assertEquals(1, AdmissionControlFilter.inFlightLevel(100, 100));
+    assertEquals(2, AdmissionControlFilter.inFlightLevel(150, 100));
+    assertEquals(3, AdmissionControlFilter.inFlightLevel(200, 100));
+  }
+
+  @Test
+  void classQuotaShedsOnlyThatClassAndFreesSlotOnCompletion() {
+    properties.getMaxConcurrent().put(PriorityClass.LOW, 1);
+    AdmissionControlFilter filter = filter(jwtTokenUtil());
+
+    Sinks.Empty<Void> pending = Sinks.empty();
+    filter.filter(exchange("low", null), exchange -> pending.asMono()).subscribe();
+
+    MockServerWebExchange rejected = exchange("low", null);
+    filter.filter(rejected, this::admit).block();
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+    assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertEquals(1.0, meterRegistry.get("gateway.admission.shed").tags("class", "low", "reason", "quota").counter().count());
+
+    MockServerWebExchange normal = exchange("normal", null);
+    filter.filter(normal, this::admit).block();
+    assertNull(normal.getResponse().getStatusCode());
+
+    pending.tryEmitEmpty();
+    filter.filter(exchange("low", null), this::admit).block();
+    assertEquals(2, admitted.get());
+  }
+
+  @Test
+  void inFlightOverloadShedsLowerClassesFirst() {
+    properties.setInFlightThreshold(2);
+    AdmissionControlFilter filter = filter(jwtTokenUtil());
+
+    Sinks.Empty<Void> pending = Sinks.empty();
+    filter.filter(exchange("critical", null), exchange -> pending.asMono()).subscribe();
+    filter.filter(exchange("critical", null), exchange -> pending.asMono()).subscribe();
+
+    MockServerWebExchange low = exchange("low", null);
+    filter.filter(low, this::admit).block();
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, low.getResponse().getStatusCode());
+    filter.filter(exchange("normal", null), this::admit).block();
+    assertEquals(1, admitted.get());
+
+    filter.filter(exchange("critical", null), exchange -> pending.asMono()).subscribe();
+    MockServerWebExchange normal = exchange("normal", null);
+    filter.filter(normal, this::admit).block();
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, normal.getResponse().getStatusCode());
+    assertEquals(1.0, meterRegistry.get("gateway.admission.shed").tags("class", "normal", "reason", "overload").counter().count());
+
+    pending.tryEmitEmpty();
+  }
+
+  @Test
+  void roleClassificationParsesTokenOnceForJwtAuthentication() {
+    properties.getRolePriorities().put("ROLE_ADMIN", PriorityClass.HIGH);
+    JwtTokenUtil jwtTokenUtil = spy(jwtTokenUtil());
+    String token = token("ROLE_ADMIN");
+    MockServerWebExchange exchange = exchange("low", token);
+
+    filter(jwtTokenUtil).filter(exchange, authenticated -> new JwtAuthenticationGatewayFilterFactory(
+      jwtTokenUtil, new IdentityContextSigner()).apply(new Object()).filter(authenticated, this::admit)).block();
+
+    assertEquals(PriorityClass.HIGH, exchange.getAttribute(AdmissionControlFilter.PRIORITY_ATTR));
+    IdentityContext identity = exchange.getAttribute(RequestIdentity.IDENTITY_ATTR);
+    assertEquals("ROLE_ADMIN", identity.getRole());
+    assertEquals(1, admitted.get());
+    verify(jwtTokenUtil, times(1)).extractIdentity(token);
+  }
+
+  @Test
+  void shedsWithoutParsingTokenWhenNoRoleCanLiftTheRequest() {
+    properties.setInFlightThreshold(2);
+    properties.getRolePriorities().put("ROLE_ADMIN", PriorityClass.NORMAL);
+    JwtTokenUtil jwtTokenUtil = spy(jwtTokenUtil());
+    AdmissionControlFilter filter = filter(jwtTokenUtil);
+    String token = token("ROLE_ADMIN");
+
+    Sinks.Empty<Void> pending = Sinks.empty();
+    filter.filter(exchange("critical", null), exchange -> pending.asMono()).subscribe();
+    filter.filter(exchange("critical", null), exchange -> pending.asMono()).subscribe();
+
+    // Nivel 1: LOW se descarta, pero el rol puede elevarla a NORMAL, así que se parsea el token
+    MockServerWebExchange lifted = exchange("low", token);
+    filter.filter(lifted, this::admit).block();
+    assertEquals(PriorityClass.NORMAL, lifted.getAttribute(AdmissionControlFilter.PRIORITY_ATTR));
+    assertEquals(1, admitted.get());
+    verify(jwtTokenUtil, times(1)).extractIdentity(anyString());
+
+    // Nivel 2: también NORMAL se descarta; ningún rol la salva y el token no se parsea
+    filter.filter(exchange("critical", null), exchange -> pending.asMono()).subscribe();
+    MockServerWebExchange shed = exchange("low", token);
+    filter.filter(shed, this::admit).block();
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+    assertNull(shed.getAttribute(RequestIdentity.IDENTITY_ATTR));
+    verify(jwtTokenUtil, times(1)).extractIdentity(anyString());
+
+    pending.tryEmitEmpty();
+  }
+
+  private AdmissionControlFilter filter(JwtTokenUtil jwtTokenUtil) {
+    EventLoopLagMonitor lagMonitor = new EventLoopLagMonitor(eventLoops, Duration.ofMillis(100), Duration.ofMillis(50));
+    return new AdmissionControlFilter(properties, jwtTokenUtil, new IdentityContextSigner(), lagMonitor, meterRegistry);
+  }
+
+  private Mono<Void> admit(ServerWebExchange exchange) {
+    admitted.incrementAndGet();
+    return Mono.empty();
+  }
+
+  private static MockServerWebExchange exchange(String priority, String token) {
+    MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/accounts");
+    if (token != null) {
+      request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+    MockServerWebExchange exchange = MockServerWebExchange.from(request);
+    Route route = Route.async()
+      .id("accounts")
+      .uri("http://localhost:8080")
+      .predicate(e -> true)
+      .metadata(AdmissionControlFilter.PRIORITY_METADATA, priority)
+      .build();
+    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+    return exchange;
+  }
+
+  private static JwtTokenUtil jwtTokenUtil() {
+    JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+    ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+    return jwtTokenUtil;
+  }
+
+  private static String token(String role) {
+    return Jwts.builder()
+      .setSubject("admission-user")
+      .claim("userId", "u-1")
+      .claim("role", role)
+      .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+      .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+      .compact();
+  }
+}
@@ -0,0 +1,144 @@
+package com.bootcamp.ntt.api_gateway.benchmark;
+
+import com.bootcamp.ntt.api_gateway.filter.RequestIdentity;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.util.JwtTokenUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la decoración de la petición autenticada antes (substring + extract* por claim +
+ * mutate().header() por header) y después (RequestIdentity). Con -prof gc, la métrica
+ * gc.alloc.rate.norm da los bytes asignados por petición.
+ *
+ * mvn -Pbenchmark test-compile exec:exec (resultado en target/jmh-result.json)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestDecorationBenchmark {
+
+  private static final String SECRET =
+    "mySuperSecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmAndMeetsSecurityRequirements123456789ABC";
+
+  private JwtTokenUtil jwtTokenUtil;
+  private MockServerHttpRequest request;
+  private IdentityContext identity;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtTokenUtil = new JwtTokenUtil();
+    ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+
+    token = Jwts.builder()
+      .setSubject("jdoe")
+      .claim("userId", "u-123")
+      .claim("customerId", "c-456")
+      .claim("role", "ROLE_USER")
+      .claim("email", "jdoe@example.com")
+      .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+      .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+      .compact();
+    identity = jwtTokenUtil.extractIdentity(token);
+
+    request = MockServerHttpRequest.get("/api/v1/accounts/123")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+      .header(HttpHeaders.ACCEPT, "application/json")
+      .header(HttpHeaders.USER_AGENT, "benchmark")
+      .header("X-Request-Id", "0f8fad5b-d9cb-469f-a165-70867728950e")
+      .build();
+  }
+
+  /**
+   * Sólo la escritura de headers sobre una petición ya construida, con el token y los claims ya
+   * leídos; crear un MockServerWebExchange por operación costaría más que lo que se mide
+   */
+  @Benchmark
+  public ServerHttpRequest legacyHeaderDecoration() {
+    return request.mutate()
+      .header("X-User-Username", identity.getUsername())
+      .header("X-User-Id", identity.getUserId())
+      .header("X-Customer-Id", identity.getCustomerId())
+      .header("X-User-Role", identity.getRole())
+      .header("X-User-Email", identity.getEmail())
+      .header("X-Auth-Token", token)
+      .build();
+  }
+
+  @Benchmark
+  public ServerHttpRequest headerDecoration() {
+    return RequestIdentity.withIdentityHeaders(request, identity, token);
+  }
+
+  /**
+   * Camino completo de JwtAuthentication más la lectura del rol en RoleBasedAuth
+   */
+  @Benchmark
+  public String legacyAuthentication() {
+    ServerWebExchange exchange = MockServerWebExchange.from(request);
+    String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    String token = authHeader.substring(7);
+    if (!jwtTokenUtil.validateToken(token)) {
+      throw new IllegalStateException("Invalid benchmark token");
+    }
+    ServerWebExchange authenticated = legacyMutate(exchange,
+      jwtTokenUtil.extractUsername(token),
+      jwtTokenUtil.extractUserId(token),
+      jwtTokenUtil.extractCustomerId(token),
+      jwtTokenUtil.extractRole(token),
+      jwtTokenUtil.extractEmail(token),
+      token);
+
+    String roleAuthHeader = authenticated.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    return jwtTokenUtil.extractRole(roleAuthHeader.substring(7));
+  }
+
+  @Benchmark
+  public String authentication() {
+    ServerWebExchange exchange = MockServerWebExchange.from(request);
+    String token = RequestIdentity.bearerToken(exchange);
+    IdentityContext identity = jwtTokenUtil.extractIdentity(token);
+    exchange.getAttributes().put(RequestIdentity.IDENTITY_ATTR, identity);
+    ServerHttpRequest decorated = RequestIdentity.withIdentityHeaders(exchange.getRequest(), identity, token);
+    ServerWebExchange authenticated = exchange.mutate().request(decorated).build();
+
+    return RequestIdentity.identity(authenticated).getRole();
+  }
+
+  private static ServerWebExchange legacyMutate(ServerWebExchange exchange, String username, String userId,
+                                                String customerId, String role, String email, String token) {
+    ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+      .header("X-User-Username", username)
+      .header("X-User-Id", userId)
+      .header("X-Customer-Id", customerId)
+      .header("X-User-Role", role)
+      .header("X-User-Email", email)
+      .header("X-Auth-Token", token)
+      .build();
+    return exchange.mutate().request(mutatedRequest).build();
+  }
+}
@@ -0,0 +1,48 @@
+package com.bootcamp.ntt.api_gateway.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AggregationPropertiesTest {
+
+  @Test
+  void acceptsDistinctKeysWithGatewayPaths() {
+    assertDoesNotThrow(() -> properties("customer", "accounts").validate());
+  }
+
+  @Test
+  void rejectsReservedAndDuplicateBranchKeys() {
+    assertThrows(IllegalStateException.class, () -> properties(AggregationProperties.DEGRADED_KEY, "customer").validate());
+    assertThrows(IllegalStateException.class, () -> properties("customer", "customer").validate());
+    assertThrows(IllegalStateException.class, () -> properties(" ").validate());
+  }
+
+  @Test
+  void rejectsServiceUrisAndNonPositiveTimeouts() {
+    AggregationProperties uri = properties("customer");
+    uri.getEndpoints().get(0).getBranches().get(0).setPath("http://customer-service/api/v1/customers");
+    assertThrows(IllegalStateException.class, uri::validate);
+
+    AggregationProperties zero = properties("customer");
+    zero.getEndpoints().get(0).getBranches().get(0).setTimeout(Duration.ZERO);
+    assertThrows(IllegalStateException.class, zero::validate);
+  }
+
+  private static AggregationProperties properties(String... keys) {
+    AggregationProperties.Endpoint endpoint = new AggregationProperties.Endpoint();
+    endpoint.setPath("/api/v1/aggregate/test");
+    for (String key : keys) {
+      AggregationProperties.Branch branch = new AggregationProperties.Branch();
+      branch.setKey(key);
+      branch.setPath("/api/v1/customers/{customerId}");
+      endpoint.getBranches().add(branch);
+    }
+    AggregationProperties properties = new AggregationProperties();
+    properties.getEndpoints().add(endpoint);
+    return properties;
+  }
+}
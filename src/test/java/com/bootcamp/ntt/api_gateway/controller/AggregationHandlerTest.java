@@ -0,0 +1,258 @@
+package com.bootcamp.ntt.api_gateway.controller;
+
+import com.bootcamp.ntt.api_gateway.loadtest.FakeRedisServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Endpoints de agregación contra rutas reales del gateway y un backend simulado
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+  "spring.cloud.config.fail-fast=false",
+  "spring.cloud.config.import-check.enabled=false",
+  "spring.cloud.discovery.enabled=false",
+  "eureka.client.enabled=false",
+  "JWT_SECRET=" + AggregationHandlerTest.JWT_SECRET,
+  "rate-limit.replenish-rate=1",
+  "rate-limit.burst-capacity=1",
+  "gateway.aggregation.endpoints[0].path=/api/v1/aggregate/home",
+  "gateway.aggregation.endpoints[0].branches[0].key=customer",
+  "gateway.aggregation.endpoints[0].branches[0].path=/api/v1/customers/{customerId}",
+  "gateway.aggregation.endpoints[0].branches[1].key=reports",
+  "gateway.aggregation.endpoints[0].branches[1].path=/api/v1/reports/summary",
+  "gateway.aggregation.endpoints[1].path=/api/v1/aggregate/customers/{customerId}",
+  "gateway.aggregation.endpoints[1].branches[0].key=customer",
+  "gateway.aggregation.endpoints[1].branches[0].path=/api/v1/customers/{customerId}",
+  "gateway.aggregation.endpoints[2].path=/api/v1/aggregate/mixed",
+  "gateway.aggregation.endpoints[2].branches[0].key=customer",
+  "gateway.aggregation.endpoints[2].branches[0].path=/api/v1/customers/{customerId}",
+  "gateway.aggregation.endpoints[2].branches[1].key=text",
+  "gateway.aggregation.endpoints[2].branches[1].path=/api/v1/misc/text",
+  "gateway.aggregation.endpoints[2].branches[2].key=broken",
+  "gateway.aggregation.endpoints[2].branches[2].path=/api/v1/misc/broken",
+  "gateway.aggregation.endpoints[2].branches[3].key=slow",
+  "gateway.aggregation.endpoints[2].branches[3].path=/api/v1/misc/slow",
+  "gateway.aggregation.endpoints[2].branches[3].timeout=300ms",
+  "gateway.aggregation.endpoints[2].branches[3].fallback=customer",
+  "gateway.aggregation.endpoints[3].path=/api/v1/aggregate/limited",
+  "gateway.aggregation.endpoints[3].branches[0].key=limited",
+  "gateway.aggregation.endpoints[3].branches[0].path=/api/v1/limited/data",
+  "gateway.aggregation.endpoints[4].path=/api/v1/aggregate/patient",
+  "gateway.aggregation.endpoints[4].branches[0].key=patient",
+  "gateway.aggregation.endpoints[4].branches[0].path=/api/v1/misc/patient",
+  "gateway.aggregation.endpoints[4].branches[0].timeout=8s"
+})
+class AggregationHandlerTest {
+
+  static final String JWT_SECRET = "aggregationTestSecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmAndSecurityRequirements";
+
+  private static final Queue<String> BACKEND_REQUESTS = new ConcurrentLinkedQueue<>();
+  private static final Queue<String> FORWARDED_FOR = new ConcurrentLinkedQueue<>();
+  private static DisposableServer backend;
+  private static FakeRedisServer redis;
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @DynamicPropertySource
+  static void routes(DynamicPropertyRegistry registry) throws IOException {
+    redis = FakeRedisServer.start();
+    registry.add("spring.redis.host", () -> "localhost");
+    registry.add("spring.redis.port", redis::getPort);
+
+    backend = HttpServer.create()
+      .host("localhost")
+      .port(0)
+      .handle((request, response) -> {
+        BACKEND_REQUESTS.add(request.uri());
+        String forwardedFor = request.requestHeaders().get("X-Forwarded-For");
+        if (forwardedFor != null) {
+          FORWARDED_FOR.add(forwardedFor);
+        }
+        switch (request.uri()) {
+          case "/api/v1/misc/text":
+            return response.header(HttpHeaderNames.CONTENT_TYPE, "text/plain").sendString(Mono.just("plain text")).then();
+          case "/api/v1/misc/broken":
+            return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json").sendString(Mono.just("{\"a\":")).then();
+          case "/api/v1/misc/slow":
+            return Mono.delay(Duration.ofSeconds(3)).then(response.sendString(Mono.just("{}")).then());
+          case "/api/v1/misc/patient":
+            // Por encima de los 5s del WebClient compartido, por debajo del timeout de la rama
+            return Mono.delay(Duration.ofMillis(5500)).then(response
+              .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+              .sendString(Mono.just("{\"patient\":true}"))
+              .then());
+          default:
+            return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+              .sendString(Mono.just("{\"path\":\"" + request.uri() + "\"}"))
+              .then();
+        }
+      })
+      .bindNow();
+
+    route(registry, 0, "customer-service", "/api/v1/customers/**", "USER");
+    route(registry, 1, "reports-service", "/api/v1/reports/**", "ADMIN");
+    route(registry, 2, "misc-service", "/api/v1/misc/**", "USER");
+    route(registry, 3, "limited-service", "/api/v1/limited/**", "USER");
+    registry.add("spring.cloud.gateway.routes[3].filters[2].name", () -> "RequestRateLimiter");
+    registry.add("spring.cloud.gateway.routes[3].filters[2].args.rate-limiter", () -> "#{@redisRateLimiter}");
+    registry.add("spring.cloud.gateway.routes[3].filters[2].args.key-resolver", () -> "#{@ipKeyResolver}");
+  }
+
+  private static void route(DynamicPropertyRegistry registry, int index, String id, String path, String role) {
+    String route = "spring.cloud.gateway.routes[" + index + "]";
+    registry.add(route + ".id", () -> id);
+    registry.add(route + ".uri", () -> "http://localhost:" + backend.port());
+    registry.add(route + ".predicates[0]", () -> "Path=" + path);
+    registry.add(route + ".filters[0]", () -> "JwtAuthentication");
+    registry.add(route + ".filters[1].name", () -> "RoleBasedAuth");
+    registry.add(route + ".filters[1].args.requiredRole", () -> role);
+  }
+
+  @AfterAll
+  static void stopBackend() throws IOException {
+    if (backend != null) {
+      backend.disposeNow();
+    }
+    if (redis != null) {
+      redis.close();
+    }
+  }
+
+  @BeforeEach
+  void clearRequests() {
+    BACKEND_REQUESTS.clear();
+    FORWARDED_FOR.clear();
+  }
+
+  @Test
+  void roleGatedBranchIsRejectedByItsRoute() throws Exception {
+    JsonNode body = aggregate("/api/v1/aggregate/home", token("ROLE_USER", "c-1"));
+
+    assertEquals("/api/v1/customers/c-1", body.path("customer").path("path").asText());
+    assertEquals(List.of("reports"), degraded(body));
+    assertTrue(BACKEND_REQUESTS.stream().noneMatch(uri -> uri.startsWith("/api/v1/reports")),
+      "ADMIN-only route must not reach the backend: " + BACKEND_REQUESTS);
+  }
+
+  @Test
+  void roleGatedBranchIsServedForAllowedRole() throws Exception {
+    JsonNode body = aggregate("/api/v1/aggregate/home", token("ROLE_ADMIN", "c-1"));
+
+    assertEquals("/api/v1/reports/summary", body.path("reports").path("path").asText());
+    assertEquals(List.of(), degraded(body));
+  }
+
+  @Test
+  void pathVariableCannotOverrideTokenIdentity() throws Exception {
+    JsonNode body = aggregate("/api/v1/aggregate/customers/c-999", token("ROLE_USER", "c-1"));
+
+    assertEquals("/api/v1/customers/c-1", body.path("customer").path("path").asText());
+  }
+
+  @Test
+  void degradesNonJsonInvalidJsonAndTimedOutBranches() throws Exception {
+    JsonNode body = aggregate("/api/v1/aggregate/mixed", token("ROLE_USER", "c-1"));
+
+    assertEquals("/api/v1/customers/c-1", body.path("customer").path("path").asText());
+    assertEquals(Set.of("text", "broken", "slow"), new HashSet<>(degraded(body)));
+    for (String key : List.of("text", "broken", "slow")) {
+      assertTrue(body.path(key).hasNonNull("message"), key + " must carry its fallback body: " + body);
+    }
+  }
+
+  @Test
+  void rateLimitsBranchesPerClientIpInsteadOfLoopback() throws Exception {
+    String token = token("ROLE_USER", "c-1");
+
+    // Burst de 1 por IP: el segundo cliente tiene su propio bucket
+    assertEquals(List.of(), degraded(aggregate("/api/v1/aggregate/limited", token, "10.0.0.1")));
+    assertEquals(List.of(), degraded(aggregate("/api/v1/aggregate/limited", token, "10.0.0.2")));
+    assertEquals(List.of("limited"), degraded(aggregate("/api/v1/aggregate/limited", token, "10.0.0.1")));
+
+    assertTrue(FORWARDED_FOR.stream().anyMatch(chain -> chain.startsWith("10.0.0.1,")), "got: " + FORWARDED_FOR);
+    assertTrue(FORWARDED_FOR.stream().anyMatch(chain -> chain.startsWith("10.0.0.2,")), "got: " + FORWARDED_FOR);
+  }
+
+  @Test
+  void branchTimeoutIsNotCutBySharedWebClientTimeout() throws Exception {
+    JsonNode body = aggregate("/api/v1/aggregate/patient", token("ROLE_USER", "c-1"));
+
+    assertEquals(List.of(), degraded(body));
+    assertTrue(body.path("patient").path("patient").asBoolean(), "got: " + body);
+  }
+
+  @Test
+  void rejectsMissingToken() {
+    webTestClient.get().uri("/api/v1/aggregate/home")
+      .exchange()
+      .expectStatus().isUnauthorized();
+  }
+
+  private JsonNode aggregate(String path, String token) throws Exception {
+    return aggregate(path, token, null);
+  }
+
+  private JsonNode aggregate(String path, String token, String clientIp) throws Exception {
+    byte[] body = webTestClient.mutate().responseTimeout(Duration.ofSeconds(10)).build()
+      .get().uri(path)
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+      .headers(headers -> {
+        if (clientIp != null) {
+          headers.set("X-Forwarded-For", clientIp);
+        }
+      })
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody().returnResult().getResponseBody();
+    return objectMapper.readTree(body);
+  }
+
+  private List<String> degraded(JsonNode body) {
+    return objectMapper.convertValue(body.path("degraded"),
+      objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+  }
+
+  private static String token(String role, String customerId) {
+    return Jwts.builder()
+      .setSubject("aggregation-user")
+      .claim("userId", "u-1")
+      .claim("customerId", customerId)
+      .claim("role", role)
+      .claim("email", "aggregation-user@example.com")
+      .setExpiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+      .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+      .compact();
+  }
+}
@@ -0,0 +1,83 @@
+package com.bootcamp.ntt.api_gateway.filter;
+
+import com.bootcamp.ntt.api_gateway.identity.IdentityContext;
+import com.bootcamp.ntt.api_gateway.identity.IdentityContextVerifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestIdentityTest {
+
+  @Test
+  void extractsBearerTokenOnceAndReusesAttribute() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/accounts")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi"));
+
+    String token = RequestIdentity.bearerToken(exchange);
+
+    assertEquals("abc.def.ghi", token);
+    assertSame(token, exchange.getAttribute(RequestIdentity.TOKEN_ATTR));
+    assertSame(token, RequestIdentity.bearerToken(exchange));
+  }
+
+  @Test
+  void ignoresMissingOrNonBearerAuthorization() {
+    assertNull(RequestIdentity.bearerToken(MockServerWebExchange.from(MockServerHttpRequest.get("/"))));
+    assertNull(RequestIdentity.bearerToken(MockServerWebExchange.from(MockServerHttpRequest.get("/")
+      .header(HttpHeaders.AUTHORIZATION, "Basic dXNlcjpwYXNz"))));
+  }
+
+  @Test
+  void writesIdentityHeadersOverReadOnlyCopy() {
+    MockServerHttpRequest request = MockServerHttpRequest.get("/api/v1/accounts")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi")
+      .header("x-user-role", "ROLE_ADMIN")
+      .header(RequestIdentity.CUSTOMER_ID_HEADER, "spoofed")
+      .build();
+    IdentityContext identity = IdentityContext.builder()
+      .username("jdoe").userId("u-1").role("ROLE_USER").email("jdoe@example.com").build();
+
+    ServerHttpRequest decorated = RequestIdentity.withIdentityHeaders(request, identity, "abc.def.ghi");
+    HttpHeaders headers = decorated.getHeaders();
+
+    assertEquals("jdoe", headers.getFirst(RequestIdentity.USERNAME_HEADER));
+    assertEquals("u-1", headers.getFirst(RequestIdentity.USER_ID_HEADER));
+    assertEquals(List.of("ROLE_USER"), headers.get(RequestIdentity.ROLE_HEADER));
+    assertEquals("abc.def.ghi", headers.getFirst(RequestIdentity.AUTH_TOKEN_HEADER));
+    assertFalse(headers.containsKey(RequestIdentity.CUSTOMER_ID_HEADER));
+    assertEquals("Bearer abc.def.ghi", headers.getFirst(HttpHeaders.AUTHORIZATION));
+    assertThrows(UnsupportedOperationException.class, () -> headers.set("X-Other", "value"));
+
+    // La petición original no se modifica y un mutate() posterior parte de los headers decorados
+    assertEquals("ROLE_ADMIN", request.getHeaders().getFirst(RequestIdentity.ROLE_HEADER));
+    assertEquals("jdoe", decorated.mutate().build().getHeaders().getFirst(RequestIdentity.USERNAME_HEADER));
+  }
+
+  @Test
+  void identityContextModeStripsClientIdentityHeadersAndToken() {
+    MockServerHttpRequest request = MockServerHttpRequest.get("/api/v1/accounts")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer abc.def.ghi")
+      .header(RequestIdentity.ROLE_HEADER, "ROLE_ADMIN")
+      .header("x-user-id", "u-999")
+      .header(RequestIdentity.AUTH_TOKEN_HEADER, "forged")
+      .build();
+
+    HttpHeaders headers = RequestIdentity.withIdentityContext(request, "signed-context").getHeaders();
+
+    assertEquals("signed-context", headers.getFirst(IdentityContextVerifier.HEADER_NAME));
+    assertFalse(headers.containsKey(RequestIdentity.ROLE_HEADER));
+    assertFalse(headers.containsKey(RequestIdentity.USER_ID_HEADER));
+    assertFalse(headers.containsKey(RequestIdentity.AUTH_TOKEN_HEADER));
+    assertFalse(headers.containsKey(HttpHeaders.AUTHORIZATION));
+  }
+}
@@ -0,0 +1,136 @@
+package com.bootcamp.ntt.api_gateway.identity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdentityContextVerifierTest {
+
+  private static final String SECRET = "identityContextSecretForTestsAtLeast32Bytes";
+
+  private IdentityContextSigner signer;
+
+  @BeforeEach
+  void setUp() {
+    signer = new IdentityContextSigner();
+    ReflectionTestUtils.setField(signer, "propagation", IdentityContextSigner.MODE_CONTEXT);
+    ReflectionTestUtils.setField(signer, "secret", SECRET);
+    ReflectionTestUtils.setField(signer, "cacheSize", 100);
+    signer.init();
+  }
+
+  @Test
+  void verifiesContextSignedByGateway() {
+    IdentityContext context = context(Instant.now().plusSeconds(600).getEpochSecond());
+
+    String header = signer.signAndCache("token", context);
+
+    Optional<IdentityContext> verified = new IdentityContextVerifier(SECRET).verify(header);
+    assertTrue(verified.isPresent());
+    assertEquals(context, verified.get());
+    assertSame(header, signer.cachedContext("token"));
+  }
+
+  @Test
+  void rejectsTamperedOrForeignContext() {
+    String header = signer.signAndCache("token", context(Instant.now().plusSeconds(600).getEpochSecond()));
+    char[] chars = header.toCharArray();
+    chars[12] = chars[12] == 'A' ? 'B' : 'A';
+
+    assertTrue(new IdentityContextVerifier(SECRET).verify(new String(chars)).isEmpty());
+    assertTrue(new IdentityContextVerifier("anotherSecretThatIsAlsoAtLeast32BytesLong").verify(header).isEmpty());
+    assertTrue(new IdentityContextVerifier(SECRET).verify("not base64 !").isEmpty());
+  }
+
+  @Test
+  void rejectsExpiredContext() {
+    long expiresAt = Instant.now().minusSeconds(1).getEpochSecond();
+    String header = signer.signAndCache("token", context(expiresAt));
+
+    IdentityContextVerifier verifier = new IdentityContextVerifier(SECRET.getBytes(StandardCharsets.UTF_8), Clock.systemUTC());
+    assertTrue(verifier.verify(header).isEmpty());
+    assertNull(signer.cachedContext("token"));
+  }
+
+  @Test
+  void fullCacheEvictsLeastRecentlyUsedInsteadOfClearing() throws InterruptedException {
+    ReflectionTestUtils.setField(signer, "cacheSize", 10);
+    long expiresAt = Instant.now().plusSeconds(600).getEpochSecond();
+    for (int i = 0; i < 10; i++) {
+      signer.signAndCache("token-" + i, context(expiresAt));
+      Thread.sleep(1);
+    }
+    assertNotNull(signer.cachedContext("token-0"));
+
+    signer.signAndCache("token-10", context(expiresAt));
+
+    assertNotNull(signer.cachedContext("token-0"));
+    assertNull(signer.cachedContext("token-1"));
+    for (int i = 2; i <= 10; i++) {
+      assertNotNull(signer.cachedContext("token-" + i), "token-" + i + " must stay cached");
+    }
+  }
+
+  @Test
+  void fullCacheDropsExpiredEntriesFirst() {
+    ReflectionTestUtils.setField(signer, "cacheSize", 10);
+    signer.signAndCache("expired", context(Instant.now().minusSeconds(1).getEpochSecond()));
+    long expiresAt = Instant.now().plusSeconds(600).getEpochSecond();
+    for (int i = 0; i < 9; i++) {
+      signer.signAndCache("token-" + i, context(expiresAt));
+    }
+
+    signer.signAndCache("token-9", context(expiresAt));
+
+    for (int i = 0; i < 10; i++) {
+      assertNotNull(signer.cachedContext("token-" + i), "token-" + i + " must stay cached");
+    }
+  }
+
+  @Test
+  void contextModeRequiresOwnSecretDistinctFromJwtSecret() {
+    IdentityContextSigner missing = contextSigner(null, "jwtSecretThatIsAtLeast32BytesLongForTests");
+    assertThrows(IllegalStateException.class, missing::init);
+
+    IdentityContextSigner shared = contextSigner("jwtSecretThatIsAtLeast32BytesLongForTests", "jwtSecretThatIsAtLeast32BytesLongForTests");
+    assertThrows(IllegalStateException.class, shared::init);
+
+    assertDoesNotThrow(contextSigner(SECRET, "jwtSecretThatIsAtLeast32BytesLongForTests")::init);
+
+    IdentityContextSigner headersMode = new IdentityContextSigner();
+    ReflectionTestUtils.setField(headersMode, "propagation", IdentityContextSigner.MODE_HEADERS);
+    assertDoesNotThrow(headersMode::init);
+  }
+
+  private static IdentityContextSigner contextSigner(String secret, String jwtSecret) {
+    IdentityContextSigner contextSigner = new IdentityContextSigner();
+    ReflectionTestUtils.setField(contextSigner, "propagation", IdentityContextSigner.MODE_CONTEXT);
+    ReflectionTestUtils.setField(contextSigner, "secret", secret);
+    ReflectionTestUtils.setField(contextSigner, "jwtSecret", jwtSecret);
+    return contextSigner;
+  }
+
+  private static IdentityContext context(long expiresAt) {
+    return IdentityContext.builder()
+      .username("jdoe")
+      .userId("u-1")
+      .customerId(null)
+      .role("ROLE_USER")
+      .email("jdoe@example.com")
+      .expiresAt(expiresAt)
+      .build();
+  }
+}
@@ -0,0 +1,201 @@
+package com.bootcamp.ntt.api_gateway.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor RESP mínimo que responde al script del RedisRateLimiter con un
+ * token bucket en memoria. Sólo implementa lo que Lettuce y el rate limiter usan.
+ */
+@Slf4j
+public final class FakeRedisServer implements AutoCloseable {
+
+  private static final byte[] PONG = "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] NO_HELLO = "-ERR unknown command 'HELLO'\r\n".getBytes(StandardCharsets.US_ASCII);
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "fake-redis");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  private FakeRedisServer(ServerSocket serverSocket) {
+    this.serverSocket = serverSocket;
+  }
+
+  public static FakeRedisServer start() throws IOException {
+    FakeRedisServer server = new FakeRedisServer(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+    server.executor.submit(server::acceptLoop);
+    return server;
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    executor.shutdownNow();
+  }
+
+  private void acceptLoop() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        executor.submit(() -> serve(socket));
+      } catch (IOException e) {
+        if (!closed) {
+          log.error("Fake Redis accept failed: {}", e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+         InputStream in = new BufferedInputStream(socket.getInputStream());
+         OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+      List<String> command;
+      while ((command = readCommand(in)) != null) {
+        out.write(reply(command));
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      if (!closed) {
+        log.debug("Fake Redis connection closed: {}", e.getMessage());
+      }
+    }
+  }
+
+  private byte[] reply(List<String> command) {
+    if (command.isEmpty()) {
+      return OK;
+    }
+    switch (command.get(0).toUpperCase(Locale.ROOT)) {
+      case "PING":
+        return PONG;
+      case "HELLO":
+        // Fuerza a Lettuce a negociar RESP2
+        return NO_HELLO;
+      case "EVAL":
+      case "EVALSHA":
+        return rateLimit(command);
+      default:
+        return OK;
+    }
+  }
+
+  /**
+   * EVALSHA sha numkeys tokensKey timestampKey replenishRate burstCapacity now requested
+   */
+  private byte[] rateLimit(List<String> command) {
+    int numKeys = Integer.parseInt(command.get(2));
+    String key = command.get(3);
+    List<String> args = command.subList(3 + numKeys, command.size());
+
+    double replenishRate = Double.parseDouble(args.get(0));
+    long burstCapacity = Long.parseLong(args.get(1));
+    long requested = args.size() > 3 ? parseOrDefault(args.get(3), 1L) : 1L;
+
+    TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(burstCapacity));
+    long[] result = bucket.take(replenishRate, burstCapacity, requested);
+
+    return ("*2\r\n:" + result[0] + "\r\n:" + result[1] + "\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static long parseOrDefault(String value, long defaultValue) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static List<String> readCommand(InputStream in) throws IOException {
+    String line = readLine(in);
+    if (line == null) {
+      return null;
+    }
+    if (!line.startsWith("*")) {
+      // Comando inline
+      return Arrays.asList(line.trim().split("\\s+"));
+    }
+
+    int count = Integer.parseInt(line.substring(1));
+    List<String> parts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String header = readLine(in);
+      if (header == null || !header.startsWith("$")) {
+        throw new IOException("Unexpected RESP token: " + header);
+      }
+      int length = Integer.parseInt(header.substring(1));
+      byte[] bytes = in.readNBytes(length);
+      readLine(in);
+      parts.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return parts;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int previous = -1;
+    int current;
+    while ((current = in.read()) != -1) {
+      if (previous == '\r' && current == '\n') {
+        byte[] bytes = line.toByteArray();
+        return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+      }
+      line.write(current);
+      previous = current;
+    }
+    return null;
+  }
+
+  private static final class TokenBucket {
+
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    private TokenBucket(long capacity) {
+      this.tokens = capacity;
+    }
+
+    private synchronized long[] take(double replenishRate, long capacity, long requested) {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1e9 * replenishRate);
+      lastRefillNanos = now;
+
+      boolean allowed = tokens >= requested;
+      if (allowed) {
+        tokens -= requested;
+      }
+      return new long[]{allowed ? 1L : 0L, (long) tokens};
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.bootcamp.ntt.api_gateway.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga extremo a extremo sin Config Server, Eureka ni Redis reales.
+ * Se ejecuta con: mvn -Pload-test test
+ * Parámetros (propiedades de sistema): loadtest.rps, loadtest.duration-seconds,
+ * loadtest.warmup-seconds, loadtest.stub.latency-ms, loadtest.stub.payload-bytes,
+ * loadtest.report, loadtest.max-p99-ms, loadtest.max-error-rate.
+ */
+@Slf4j
+@Tag("load")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+  "spring.cloud.config.fail-fast=false",
+  "spring.cloud.config.import-check.enabled=false",
+  "spring.cloud.discovery.enabled=false",
+  "eureka.client.enabled=false",
+  "logging.level.com.bootcamp.ntt.api_gateway=WARN",
+  "rate-limit.replenish-rate=100000",
+  "rate-limit.burst-capacity=200000",
+  "JWT_SECRET=" + GatewayLoadTest.JWT_SECRET
+})
+class GatewayLoadTest {
+
+  static final String JWT_SECRET = "loadTestSecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmAndMeetsSecurityRequirements0123";
+
+  private static final String[] SERVICES = {"customer", "account", "reports"};
+  private static final String[] PATHS = {"/api/v1/customers/1", "/api/v1/accounts/1", "/api/v1/reports/summary"};
+  private static final String[] PATH_PATTERNS = {"/api/v1/customers/**", "/api/v1/accounts/**", "/api/v1/reports/**"};
+
+  private static final List<StubBackend> STUBS = new ArrayList<>();
+  private static FakeRedisServer redis;
+
+  @LocalServerPort
+  private int port;
+
+  @DynamicPropertySource
+  static void gatewayProperties(DynamicPropertyRegistry registry) throws IOException {
+    Duration latency = Duration.ofMillis(Long.getLong("loadtest.stub.latency-ms", 5L));
+    int payloadBytes = Integer.getInteger("loadtest.stub.payload-bytes", 1024);
+
+    redis = FakeRedisServer.start();
+    registry.add("spring.redis.host", () -> "localhost");
+    registry.add("spring.redis.port", redis::getPort);
+
+    for (int i = 0; i < SERVICES.length; i++) {
+      StubBackend stub = StubBackend.start(SERVICES[i], latency, payloadBytes);
+      STUBS.add(stub);
+
+      String route = "spring.cloud.gateway.routes[" + i + "]";
+      registry.add(route + ".id", () -> stub.getName() + "-service");
+      registry.add(route + ".uri", stub::getUri);
+      String pathPattern = PATH_PATTERNS[i];
+      registry.add(route + ".predicates[0]", () -> "Path=" + pathPattern);
+      registry.add(route + ".filters[0]", () -> "JwtAuthentication");
+      registry.add(route + ".filters[1].name", () -> "RoleBasedAuth");
+      registry.add(route + ".filters[1].args.requiredRole", () -> "USER");
+      registry.add(route + ".filters[2].name", () -> "RequestRateLimiter");
+      registry.add(route + ".filters[2].args.rate-limiter", () -> "#{@redisRateLimiter}");
+      registry.add(route + ".filters[2].args.key-resolver", () -> "#{@ipKeyResolver}");
+    }
+  }
+
+  @AfterAll
+  static void stopBackends() throws IOException {
+    STUBS.forEach(StubBackend::close);
+    STUBS.clear();
+    if (redis != null) {
+      redis.close();
+    }
+  }
+
+  @Test
+  void sustainsOpenModelLoad() throws IOException {
+    int rps = Integer.getInteger("loadtest.rps", 200);
+    Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 20L));
+    Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5L));
+
+    LoadGenerator generator = new LoadGenerator(webClient(), targets(), Duration.ofSeconds(10));
+    generator.run(rps, warmup);
+    Map<String, Object> report = generator.run(rps, duration);
+
+    Path output = Paths.get(System.getProperty("loadtest.report", "target/load-test/gateway-load-report.json"));
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    Files.write(output, new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+      .writeValueAsString(report).getBytes(StandardCharsets.UTF_8));
+    log.warn("Load test report written to {}", output.toAbsolutePath());
+
+    assertEquals(report.get("requests"), report.get("completed"), "every request must complete or fail explicitly");
+    assertThresholds(report);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void assertThresholds(Map<String, Object> report) {
+    Map<String, Map<String, Long>> outcomes = (Map<String, Map<String, Long>>) report.get("outcomes");
+    Map<String, Long> invalid = outcomes.getOrDefault(LoadGenerator.TokenKind.INVALID.name(), Map.of());
+    Map<String, Long> expired = outcomes.getOrDefault(LoadGenerator.TokenKind.EXPIRED.name(), Map.of());
+    assertTrue(invalid.keySet().stream().allMatch("401"::equals), "invalid tokens must be rejected: " + invalid);
+    assertTrue(expired.keySet().stream().allMatch("401"::equals), "expired tokens must be rejected: " + expired);
+
+    String maxP99 = System.getProperty("loadtest.max-p99-ms");
+    if (maxP99 != null) {
+      double p99 = (Double) ((Map<String, Object>) report.get("latency")).get("p99Ms");
+      assertTrue(p99 <= Double.parseDouble(maxP99), "p99 " + p99 + "ms exceeds " + maxP99 + "ms");
+    }
+
+    String maxErrorRate = System.getProperty("loadtest.max-error-rate");
+    if (maxErrorRate != null) {
+      Map<String, Long> valid = outcomes.getOrDefault(LoadGenerator.TokenKind.VALID.name(), Map.of());
+      long total = valid.values().stream().mapToLong(Long::longValue).sum();
+      long errors = total - valid.getOrDefault("200", 0L);
+      double errorRate = total == 0 ? 0.0 : (double) errors / total;
+      assertTrue(errorRate <= Double.parseDouble(maxErrorRate),
+        "error rate " + errorRate + " for valid tokens exceeds " + maxErrorRate);
+    }
+  }
+
+  /**
+   * Mezcla de 100 peticiones: 80% token válido, 10% firma inválida, 10% token expirado
+   */
+  private List<LoadGenerator.Target> targets() {
+    SecretKey key = Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8));
+    SecretKey otherKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+    long now = System.currentTimeMillis();
+
+    String valid = "Bearer " + token(key, new Date(now + Duration.ofHours(1).toMillis()));
+    String invalid = "Bearer " + token(otherKey, new Date(now + Duration.ofHours(1).toMillis()));
+    String expired = "Bearer " + token(key, new Date(now - Duration.ofMinutes(5).toMillis()));
+
+    List<LoadGenerator.Target> targets = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String path = PATHS[i % PATHS.length];
+      if (i % 10 == 3) {
+        targets.add(new LoadGenerator.Target(path, LoadGenerator.TokenKind.INVALID, invalid));
+      } else if (i % 10 == 7) {
+        targets.add(new LoadGenerator.Target(path, LoadGenerator.TokenKind.EXPIRED, expired));
+      } else {
+        targets.add(new LoadGenerator.Target(path, LoadGenerator.TokenKind.VALID, valid));
+      }
+    }
+    return targets;
+  }
+
+  private static String token(SecretKey key, Date expiration) {
+    return Jwts.builder()
+      .setSubject("load-user")
+      .claim("userId", "u-1")
+      .claim("customerId", "c-1")
+      .claim("role", "ROLE_USER")
+      .claim("email", "load-user@example.com")
+      .setIssuedAt(new Date(expiration.getTime() - Duration.ofHours(2).toMillis()))
+      .setExpiration(expiration)
+      .signWith(key, SignatureAlgorithm.HS512)
+      .compact();
+  }
+
+  private WebClient webClient() {
+    ConnectionProvider connections = ConnectionProvider.builder("load-test")
+      .maxConnections(1000)
+      .pendingAcquireMaxCount(-1)
+      .build();
+
+    return WebClient.builder()
+      .baseUrl("http://localhost:" + port)
+      .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+      .build();
+  }
+}
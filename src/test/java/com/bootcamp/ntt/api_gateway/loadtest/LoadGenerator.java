@@ -0,0 +1,153 @@
+package com.bootcamp.ntt.api_gateway.loadtest;
+
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generador de carga de modelo abierto: las peticiones salen a ritmo fijo sin
+ * esperar a las anteriores, y la latencia se mide desde el instante planificado
+ * para no ocultar colas (coordinated omission).
+ */
+final class LoadGenerator {
+
+  enum TokenKind { VALID, INVALID, EXPIRED }
+
+  static final class Target {
+    private final String path;
+    private final TokenKind kind;
+    private final String authorization;
+
+    Target(String path, TokenKind kind, String authorization) {
+      this.path = path;
+      this.kind = kind;
+      this.authorization = authorization;
+    }
+  }
+
+  private static final int CLIENT_IPS = 256;
+
+  private final WebClient client;
+  private final List<Target> targets;
+  private final Duration requestTimeout;
+
+  LoadGenerator(WebClient client, List<Target> targets, Duration requestTimeout) {
+    this.client = client;
+    this.targets = targets;
+    this.requestTimeout = requestTimeout;
+  }
+
+  Map<String, Object> run(int rps, Duration duration) {
+    int total = (int) (rps * duration.getSeconds());
+    long intervalNanos = 1_000_000_000L / rps;
+    long[] latencies = new long[total];
+    AtomicInteger recorded = new AtomicInteger();
+    ConcurrentMap<String, ConcurrentMap<String, LongAdder>> outcomes = new ConcurrentHashMap<>();
+
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+
+    Flux.range(0, total)
+      .flatMap(i -> {
+        long scheduled = start + i * intervalNanos;
+        Target target = targets.get(i % targets.size());
+        return Mono.delay(Duration.ofNanos(Math.max(0L, scheduled - System.nanoTime())))
+          .then(send(target, i))
+          .doOnNext(status -> {
+            latencies[recorded.getAndIncrement()] = System.nanoTime() - scheduled;
+            outcomes.computeIfAbsent(target.kind.name(), k -> new ConcurrentHashMap<>())
+              .computeIfAbsent(status, k -> new LongAdder())
+              .increment();
+          });
+      }, total)
+      .blockLast(duration.plus(requestTimeout).plusSeconds(30));
+
+    double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+    long allocated = allocatedBefore < 0 ? -1L : allocatedBytes() - allocatedBefore;
+
+    return report(rps, total, elapsedSeconds, Arrays.copyOf(latencies, recorded.get()), outcomes, allocated);
+  }
+
+  private Mono<String> send(Target target, int sequence) {
+    WebClient.RequestHeadersSpec<?> request = client.get()
+      .uri(target.path)
+      .header("X-Forwarded-For", "10.0." + (sequence % CLIENT_IPS) / 16 + "." + sequence % 16);
+    if (target.authorization != null) {
+      request = request.header("Authorization", target.authorization);
+    }
+
+    return request
+      .exchangeToMono(response -> response.releaseBody().thenReturn(String.valueOf(response.rawStatusCode())))
+      .timeout(requestTimeout)
+      .onErrorResume(e -> Mono.just(e.getClass().getSimpleName()));
+  }
+
+  private static Map<String, Object> report(int targetRps, int total, double elapsedSeconds, long[] latencies,
+                                            Map<String, ConcurrentMap<String, LongAdder>> outcomes, long allocated) {
+    Arrays.sort(latencies);
+
+    Map<String, Object> latency = new LinkedHashMap<>();
+    latency.put("p50Ms", percentileMs(latencies, 0.50));
+    latency.put("p99Ms", percentileMs(latencies, 0.99));
+    latency.put("p999Ms", percentileMs(latencies, 0.999));
+    latency.put("maxMs", latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+
+    Map<String, Map<String, Long>> mix = new LinkedHashMap<>();
+    outcomes.forEach((kind, byStatus) -> {
+      Map<String, Long> counts = new LinkedHashMap<>();
+      byStatus.forEach((status, count) -> counts.put(status, count.sum()));
+      mix.put(kind, counts);
+    });
+
+    Map<String, Object> allocation = new LinkedHashMap<>();
+    allocation.put("bytesPerSecond", allocated < 0 ? null : allocated / elapsedSeconds);
+    allocation.put("bytesPerRequest", allocated < 0 || latencies.length == 0 ? null : allocated / latencies.length);
+    allocation.put("scope", "whole JVM: gateway, stubs and load generator");
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("targetRps", targetRps);
+    report.put("requests", total);
+    report.put("completed", latencies.length);
+    report.put("achievedRps", latencies.length / elapsedSeconds);
+    report.put("latency", latency);
+    report.put("outcomes", mix);
+    report.put("allocation", allocation);
+    return report;
+  }
+
+  private static double percentileMs(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0.0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+  }
+
+  /**
+   * Bytes asignados por todos los hilos vivos, o -1 si la JVM no lo soporta
+   */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return -1L;
+    }
+    com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+    if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+      return -1L;
+    }
+    return Arrays.stream(sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+      .filter(bytes -> bytes > 0)
+      .sum();
+  }
+}
@@ -0,0 +1,62 @@
+package com.bootcamp.ntt.api_gateway.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Microservicio simulado con latencia y tamaño de respuesta configurables
+ */
+final class StubBackend implements AutoCloseable {
+
+  private final String name;
+  private final DisposableServer server;
+
+  private StubBackend(String name, DisposableServer server) {
+    this.name = name;
+    this.server = server;
+  }
+
+  static StubBackend start(String name, Duration latency, int payloadBytes) {
+    byte[] payload = payload(name, payloadBytes);
+
+    DisposableServer server = HttpServer.create()
+      .host("localhost")
+      .port(0)
+      .handle((request, response) -> Mono.delay(latency)
+        .then(response
+          .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+          .sendByteArray(Mono.just(payload))
+          .then()))
+      .bindNow();
+
+    return new StubBackend(name, server);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  String getUri() {
+    return "http://localhost:" + server.port();
+  }
+
+  @Override
+  public void close() {
+    server.disposeNow();
+  }
+
+  private static byte[] payload(String name, int payloadBytes) {
+    String prefix = "{\"service\":\"" + name + "\",\"data\":\"";
+    String suffix = "\"}";
+    int fill = Math.max(0, payloadBytes - prefix.length() - suffix.length());
+    char[] data = new char[fill];
+    Arrays.fill(data, 'x');
+    return (prefix + new String(data) + suffix).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,151 @@
+package com.bootcamp.ntt.api_gateway.profiling;
+
+import com.bootcamp.ntt.api_gateway.dto.FilterProfileEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilterProfilerTest {
+
+  private static final long FILTER_MS = 20;
+  private static final long DOWNSTREAM_MS = 200;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void recordsSyncTimeUntilHandoffExcludingDownstream() {
+    FilterProfiler profiler = new FilterProfiler(meterRegistry, 1);
+    AtomicInteger downstream = new AtomicInteger();
+    GatewayFilterChain slowChain = exchange -> {
+      sleep(DOWNSTREAM_MS);
+      downstream.incrementAndGet();
+      return Mono.empty();
+    };
+    GatewayFilter handsOff = (exchange, chain) -> {
+      sleep(FILTER_MS);
+      return chain.filter(exchange);
+    };
+
+    profiler.profile("HandsOff", handsOff, exchange("accounts"), slowChain).block();
+
+    Timer timer = timer("HandsOff", "accounts");
+    assertEquals(1, timer.count());
+    assertEquals(1, downstream.get());
+    assertTrue(timer.max(TimeUnit.MILLISECONDS) >= FILTER_MS, "filter time must be recorded");
+    assertTrue(timer.max(TimeUnit.MILLISECONDS) < DOWNSTREAM_MS, "downstream time must not be recorded");
+  }
+
+  @Test
+  void recordsWholeFilterWhenItShortCircuits() {
+    FilterProfiler profiler = new FilterProfiler(meterRegistry, 1);
+    GatewayFilter rejects = (exchange, chain) -> {
+      sleep(FILTER_MS);
+      return Mono.empty();
+    };
+
+    profiler.profile("Rejects", rejects, exchange("accounts"), exchange -> {
+      throw new AssertionError("chain must not be invoked");
+    }).block();
+
+    Timer timer = timer("Rejects", "accounts");
+    assertEquals(1, timer.count());
+    assertTrue(timer.max(TimeUnit.MILLISECONDS) >= FILTER_MS);
+  }
+
+  @Test
+  void samplesOneInEveryNRequestsConsistentlyAcrossFilters() {
+    int sampleEvery = 4;
+    int requests = 4000;
+    FilterProfiler profiler = new FilterProfiler(meterRegistry, sampleEvery);
+    GatewayFilter passThrough = (exchange, chain) -> chain.filter(exchange);
+    AtomicInteger invocations = new AtomicInteger();
+
+    for (int i = 0; i < requests; i++) {
+      MockServerWebExchange exchange = exchange("accounts");
+      GatewayFilterChain end = e -> {
+        invocations.incrementAndGet();
+        return Mono.empty();
+      };
+      profiler.profile("First", passThrough, exchange,
+        e -> profiler.profile("Second", passThrough, e, end)).block();
+    }
+
+    long first = timer("First", "accounts").count();
+    long second = timer("Second", "accounts").count();
+    assertEquals(requests, invocations.get());
+    assertEquals(first, second, "a sampled request must be measured in every filter");
+    assertTrue(first > requests / sampleEvery * 0.8 && first < requests / sampleEvery * 1.2,
+      "expected about " + requests / sampleEvery + " samples, got " + first);
+
+    FilterProfileEntry entry = profiler.snapshot().get(0);
+    assertEquals(entry.getSamples() * sampleEvery, entry.getEstimatedInvocations());
+  }
+
+  @Test
+  void keepsProfiledRouteInstanceWhileSourceRouteIsUnchanged() {
+    List<Route> routes = new ArrayList<>();
+    routes.add(route("accounts"));
+    routes.add(route("customers"));
+    RouteLocator delegate = () -> Flux.fromIterable(new ArrayList<>(routes));
+    ProfiledRouteLocator locator = new ProfiledRouteLocator(delegate, new FilterProfiler(meterRegistry, 1));
+
+    List<Route> first = locator.getRoutes().collectList().block();
+    assertTrue(first.get(0).getFilters().get(0) instanceof ProfiledFilter);
+
+    routes.set(1, route("customers"));
+    List<Route> second = locator.getRoutes().collectList().block();
+
+    assertSame(first.get(0), second.get(0));
+    assertNotSame(first.get(1), second.get(1));
+    assertSame(second.get(1), locator.getRoutes().collectList().block().get(1));
+  }
+
+  private Timer timer(String filter, String route) {
+    return meterRegistry.get(FilterProfiler.METRIC_NAME).tags("filter", filter, "route", route).timer();
+  }
+
+  private static MockServerWebExchange exchange(String routeId) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/" + routeId));
+    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route(routeId));
+    return exchange;
+  }
+
+  private static Route route(String id) {
+    GatewayFilter filter = (exchange, chain) -> chain.filter(exchange);
+    return Route.async()
+      .id(id)
+      .uri("http://localhost:8080")
+      .predicate(exchange -> true)
+      .filter(filter)
+      .build();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
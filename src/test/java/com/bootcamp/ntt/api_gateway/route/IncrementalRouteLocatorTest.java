@@ -0,0 +1,260 @@
+package com.bootcamp.ntt.api_gateway.route;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.validation.Validator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalRouteLocatorTest {
+
+  private static final int ROUTES = 1000;
+  private static final int RELOADS = 20;
+  private static final int CHANGES_PER_RELOAD = 10;
+
+  private final AtomicReference<List<RouteDefinition>> definitions = new AtomicReference<>();
+  private final AtomicInteger conversions = new AtomicInteger();
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void reloadsOnlyChangedRoutesOfLargeTableUnderLoad() throws Exception {
+    List<RouteDefinition> initial = new ArrayList<>();
+    for (int i = 0; i < ROUTES; i++) {
+      initial.add(definition(i, 0));
+    }
+    definitions.set(initial);
+
+    CachingRouteLocator routeLocator = new CachingRouteLocator(incrementalLocator());
+    routeLocator.setApplicationEventPublisher(event -> { });
+
+    Map<String, Route> before = routesById(routeLocator);
+    assertEquals(ROUTES, before.size());
+    assertEquals(ROUTES, conversions.get());
+
+    // Lectores concurrentes simulando tráfico mientras se recarga la tabla
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicLong lookups = new AtomicLong();
+    ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      readers.submit(() -> {
+        while (running.get()) {
+          List<Route> routes = routeLocator.getRoutes().collectList().block(Duration.ofSeconds(5));
+          if (routes == null || routes.size() != ROUTES) {
+            failures.add("Unexpected route table size: " + (routes == null ? null : routes.size()));
+          }
+          lookups.incrementAndGet();
+        }
+      });
+    }
+
+    for (int reload = 1; reload <= RELOADS; reload++) {
+      List<RouteDefinition> next = new ArrayList<>(definitions.get());
+      for (int c = 0; c < CHANGES_PER_RELOAD; c++) {
+        int index = (reload * CHANGES_PER_RELOAD + c) % ROUTES;
+        next.set(index, definition(index, reload));
+      }
+      definitions.set(next);
+
+      int expectedConversions = ROUTES + reload * CHANGES_PER_RELOAD;
+      routeLocator.onApplicationEvent(new RefreshRoutesEvent(this));
+      waitFor(() -> conversions.get() == expectedConversions);
+    }
+
+    running.set(false);
+    readers.shutdown();
+    assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertTrue(failures.isEmpty(), String.valueOf(failures.peek()));
+    assertTrue(lookups.get() > 0);
+    assertEquals(ROUTES + RELOADS * CHANGES_PER_RELOAD, conversions.get());
+
+    Map<String, Route> after = routesById(routeLocator);
+    assertEquals(ROUTES, after.size());
+    assertSame(before.get("route-999"), after.get("route-999"));
+    assertNotSame(before.get("route-10"), after.get("route-10"));
+
+    assertEquals(RELOADS + 1, meterRegistry.get("gateway.routes.reload.duration").timer().count());
+    assertEquals(ROUTES + RELOADS * CHANGES_PER_RELOAD,
+      meterRegistry.get("gateway.routes.reload.changed").summary().totalAmount());
+  }
+
+  @Test
+  void dropsRemovedRoutesAndRebuildsAllWhenDefaultFiltersChange() {
+    definitions.set(List.of(definition(1, 0), definition(2, 0), definition(3, 0)));
+    AtomicReference<List<FilterDefinition>> defaultFilters = new AtomicReference<>(Collections.emptyList());
+    IncrementalRouteLocator locator = new IncrementalRouteLocator(() -> Flux.fromIterable(definitions.get()),
+      converter(), defaultFilters::get, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+    assertEquals(3, locator.getRoutes().count().block());
+
+    definitions.set(List.of(definition(1, 0), definition(3, 0)));
+    List<Route> routes = locator.getRoutes().collectList().block();
+    assertEquals(List.of("route-1", "route-3"), routes.stream().map(Route::getId).collect(Collectors.toList()));
+    assertEquals(3, conversions.get());
+
+    defaultFilters.set(List.of(new FilterDefinition("AddResponseHeader=X-Gateway,true")));
+    assertEquals(2, locator.getRoutes().count().block());
+    assertEquals(5, conversions.get());
+  }
+
+  @Test
+  void postProcessorInstallsRealConverterAndKeepsDuplicateIds() {
+    definitions.set(List.of(
+      realDefinition("route-a", "/a/**", "a"),
+      realDefinition("route-b", "/b/**", "b"),
+      realDefinition("dup", "/d1/**", "d1"),
+      realDefinition("dup", "/d2/**", "d2")));
+
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("conversionService", new DefaultConversionService());
+    ConfigurationService configurationService = new ConfigurationService(beanFactory,
+      beanFactory.getBeanProvider(ConversionService.class), beanFactory.getBeanProvider(Validator.class));
+    beanFactory.addBean("configurationService", configurationService);
+    beanFactory.addBean("pathRoutePredicateFactory", new PathRoutePredicateFactory());
+    beanFactory.addBean("addRequestHeaderGatewayFilterFactory", new AddRequestHeaderGatewayFilterFactory());
+    beanFactory.addBean("gatewayProperties", new GatewayProperties());
+    beanFactory.addBean("routeDefinitionLocator", (RouteDefinitionLocator) () -> Flux.fromIterable(definitions.get()));
+
+    RouteDefinitionRouteLocator original = new RouteDefinitionRouteLocator(() -> Flux.fromIterable(definitions.get()),
+      List.of(new PathRoutePredicateFactory()), List.of(new AddRequestHeaderGatewayFilterFactory()),
+      new GatewayProperties(), configurationService);
+    Object processed = new IncrementalRouteLocatorPostProcessor(beanFactory)
+      .postProcessAfterInitialization(original, "routeDefinitionRouteLocator");
+    assertTrue(processed instanceof IncrementalRouteLocator);
+    IncrementalRouteLocator locator = (IncrementalRouteLocator) processed;
+
+    List<Route> routes = locator.getRoutes().collectList().block();
+    assertEquals(4, routes.size());
+    assertEquals("a", routeHeader(routes.get(0), "/a/x"));
+    assertEquals("b", routeHeader(routes.get(1), "/b/x"));
+    assertEquals("d1", routeHeader(routes.get(2), "/d1/x"));
+    assertEquals("d2", routeHeader(routes.get(3), "/d2/x"));
+    assertNotSame(routes.get(2), routes.get(3));
+
+    definitions.set(List.of(
+      realDefinition("route-a", "/a/**", "a"),
+      realDefinition("route-b", "/b/**", "b2"),
+      realDefinition("dup", "/d1/**", "d1"),
+      realDefinition("dup", "/d2/**", "d2")));
+    List<Route> reloaded = locator.getRoutes().collectList().block();
+    assertSame(routes.get(0), reloaded.get(0));
+    assertNotSame(routes.get(1), reloaded.get(1));
+    assertEquals("b2", routeHeader(reloaded.get(1), "/b/x"));
+    assertSame(routes.get(2), reloaded.get(2));
+    assertSame(routes.get(3), reloaded.get(3));
+  }
+
+  private IncrementalRouteLocator incrementalLocator() {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.<String, Object>of("meterRegistry", meterRegistry));
+    return new IncrementalRouteLocator(() -> Flux.fromIterable(definitions.get()), converter(),
+      Collections::emptyList, beanFactory.getBeanProvider(MeterRegistry.class));
+  }
+
+  /**
+   * Conversor de prueba que cuenta cuántas definiciones se convierten
+   */
+  private Function<List<RouteDefinition>, Flux<Route>> converter() {
+    return changed -> Flux.fromIterable(changed)
+      .map(definition -> {
+        conversions.incrementAndGet();
+        return Route.async()
+          .id(definition.getId())
+          .uri(definition.getUri())
+          .order(definition.getOrder())
+          .asyncPredicate(exchange -> Mono.just(true))
+          .build();
+      });
+  }
+
+  private static RouteDefinition definition(int index, int version) {
+    RouteDefinition definition = new RouteDefinition();
+    definition.setId("route-" + index);
+    definition.setUri(URI.create("http://service-" + index + ":8080"));
+    definition.setPredicates(List.of(new PredicateDefinition("Path=/api/v1/r" + index + "/**")));
+    definition.setFilters(List.of(new FilterDefinition("AddRequestHeader=X-Route-Version," + version)));
+    return definition;
+  }
+
+  private static RouteDefinition realDefinition(String id, String path, String headerValue) {
+    RouteDefinition definition = new RouteDefinition();
+    definition.setId(id);
+    definition.setUri(URI.create("http://localhost:8080"));
+    definition.setPredicates(List.of(new PredicateDefinition("Path=" + path)));
+    definition.setFilters(List.of(new FilterDefinition("AddRequestHeader=X-Route," + headerValue)));
+    return definition;
+  }
+
+  /**
+   * Verifica que el predicado de la ruta acepta el path y devuelve el header que añaden sus filtros
+   */
+  private static String routeHeader(Route route, String path) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    assertTrue(Mono.from(route.getPredicate().apply(exchange)).block(), route.getId() + " must match " + path);
+
+    AtomicReference<ServerWebExchange> filtered = new AtomicReference<>(exchange);
+    for (GatewayFilter filter : route.getFilters()) {
+      ServerWebExchange current = filtered.get();
+      filter.filter(current, next -> {
+        filtered.set(next);
+        return Mono.empty();
+      }).block();
+    }
+    return filtered.get().getRequest().getHeaders().getFirst("X-Route");
+  }
+
+  private static Map<String, Route> routesById(CachingRouteLocator routeLocator) {
+    return routeLocator.getRoutes().collectMap(Route::getId).block();
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(condition.getAsBoolean(), "condition not met in time");
+  }
+}